@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+#
+# Compare GET /api/v1/todos/{id} (Tomcat, Spring MVC, JPA) with GET /api/v2/todos/{id}
+# (Reactor Netty, WebFlux, R2DBC) at high concurrency.
+#
+# Builds the app and starts it once against the database configured by the usual
+# SPRING_DATASOURCE_* and TODO_V2_R2DBC_* variables; both APIs run side by side on their own
+# ports. Each API is warmed up, then driven by wrk with 5000 concurrent connections. The todo
+# cache is turned off so every v1 request goes through the JDBC path like v2's do through R2DBC.
+#
+# Requirements: JDK 17, Maven, wrk, curl. Raise the open-file limit (ulimit -n 20000) first.
+#
+# Usage: bench/reactive.sh [duration] [connections]
+
+set -euo pipefail
+
+DURATION="${1:-60s}"
+CONNECTIONS="${2:-5000}"
+THREADS="${WRK_THREADS:-16}"
+PORT="${PORT:-8080}"
+V2_PORT="${V2_PORT:-8081}"
+RESULTS_DIR="${RESULTS_DIR:-target/bench/reactive}"
+
+cd "$(dirname "$0")/.."
+mkdir -p "$RESULTS_DIR"
+
+mvn -B -q package -DskipTests
+JAR="$(ls target/todo-api-*.jar | grep -v original | head -n 1)"
+
+wait_for_app() {
+  for _ in $(seq 1 120); do
+    if curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null \
+      && curl -s -o /dev/null "http://localhost:${V2_PORT}/api/v2/todos/0"; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "application did not become healthy" >&2
+  return 1
+}
+
+log="${RESULTS_DIR}/app.log"
+java -jar "$JAR" \
+  --server.port="$PORT" \
+  --todo.v2.port="$V2_PORT" \
+  --spring.cache.type=none \
+  --spring.jpa.show-sql=false \
+  --logging.level.com.olixc.todo=INFO \
+  --logging.level.org.springframework.web=INFO \
+  > "$log" 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null || true' EXIT
+
+wait_for_app
+id="$(curl -sf -H 'Content-Type: application/json' \
+  -d '{"title":"benchmark todo","description":"reactive benchmark"}' \
+  "http://localhost:${PORT}/api/v1/todos" | sed -E 's/.*"id":([0-9]+).*/\1/')"
+
+run_api() {
+  local api="$1"
+  local url="$2"
+
+  echo "==> ${api}"
+  # Warm-up so JIT compilation doesn't count against either API
+  wrk -t"$THREADS" -c500 -d15s "$url" > /dev/null
+  wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --timeout 10s --latency \
+    "$url" | tee "${RESULTS_DIR}/${api}-wrk.txt"
+}
+
+run_api v1 "http://localhost:${PORT}/api/v1/todos/${id}"
+run_api v2 "http://localhost:${V2_PORT}/api/v2/todos/${id}"
+
+curl -sf -X DELETE "http://localhost:${PORT}/api/v1/todos/${id}" > /dev/null || true
+
+summary() {
+  local file="${RESULTS_DIR}/$1-wrk.txt"
+  local rps p99
+  rps="$(awk '/Requests\/sec/ {print $2}' "$file")"
+  p99="$(awk '$1 == "99%" {print $2}' "$file")"
+  printf '%-10s %15s %12s\n' "$1" "$rps" "$p99"
+}
+
+echo
+printf '%-10s %15s %12s\n' api requests/sec p99
+summary v1
+summary v2
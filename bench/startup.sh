@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+#
+# Measure time-to-first-successful-request for GET /api/v1/todos.
+#
+# Builds with the fast-startup profile, then starts the app repeatedly in two modes against the
+# datasource configured by the usual SPRING_DATASOURCE_* variables (also used by the CDS training run):
+#   default       java -jar target/todo-api-*.jar, as the default Docker image runs it
+#   fast-startup  Spring AOT plus the AppCDS archive from target/fast-startup
+# Each run is timed from process launch until the endpoint first answers 200, then stopped.
+#
+# Requirements: JDK 17+, Maven, curl, a reachable database.
+#
+# Usage: bench/startup.sh [runs]
+
+set -euo pipefail
+
+RUNS="${1:-10}"
+PORT="${PORT:-8080}"
+URL="http://localhost:${PORT}/api/v1/todos"
+RESULTS_DIR="${RESULTS_DIR:-target/bench/startup}"
+
+cd "$(dirname "$0")/.."
+mkdir -p "$RESULTS_DIR"
+RESULTS_DIR="$(cd "$RESULTS_DIR" && pwd)"
+
+mvn -B -q -Pfast-startup package -DskipTests
+JAR="$(ls target/todo-api-*.jar | grep -v original | head -n 1)"
+
+now_ms() {
+  date +%s%3N
+}
+
+# Start the app with the given command, print the milliseconds until the first 200
+time_to_first_request() {
+  local log="$1"
+  shift
+  local start pid
+  start="$(now_ms)"
+  "$@" --server.port="$PORT" --logging.level.com.olixc.todo=INFO --logging.level.org.springframework.web=INFO \
+    > "$log" 2>&1 &
+  pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited, see $log" >&2
+      return 1
+    fi
+    sleep 0.01
+  done
+  echo $(( $(now_ms) - start ))
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+run_mode() {
+  local mode="$1"
+  shift
+  echo "==> ${mode}" >&2
+  : > "${RESULTS_DIR}/${mode}.txt"
+  for _ in $(seq 1 "$RUNS"); do
+    time_to_first_request "${RESULTS_DIR}/${mode}-app.log" "$@" | tee -a "${RESULTS_DIR}/${mode}.txt" >&2
+  done
+}
+
+run_mode default java -jar "$JAR"
+(
+  cd target/fast-startup
+  run_mode fast-startup java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar
+)
+
+summary() {
+  sort -n "${RESULTS_DIR}/$1.txt" | awk -v mode="$1" '
+    { ms[NR] = $1 }
+    END { printf "%-14s %8d %8d %8d\n", mode, ms[1], ms[int((NR + 1) / 2)], ms[NR] }'
+}
+
+echo
+printf '%-14s %8s %8s %8s\n' mode min-ms p50-ms max-ms
+summary default
+summary fast-startup
@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+#
+# Compare platform-thread and virtual-thread request execution for GET /api/v1/todos/{id}.
+#
+# Builds the app for Java 21, then starts it twice against the datasource configured by the
+# usual SPRING_DATASOURCE_* variables: once on Tomcat's platform-thread pool and once with the
+# virtual-threads profile. Each run is warmed up, then driven by wrk with 5000 concurrent
+# connections. The todo cache is turned off so every request goes through the JDBC path.
+# Both runs use the same Hikari pool (POOL_SIZE, by default the virtual-threads profile's 50,
+# and its 5 s connection timeout), so the comparison measures the thread model, not the pool.
+#
+# Requirements: JDK 21, Maven, wrk, curl. Raise the open-file limit (ulimit -n 20000) first.
+#
+# Usage: [POOL_SIZE=50] bench/virtual-threads.sh [duration] [connections]
+
+set -euo pipefail
+
+DURATION="${1:-60s}"
+CONNECTIONS="${2:-5000}"
+THREADS="${WRK_THREADS:-16}"
+POOL_SIZE="${POOL_SIZE:-50}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}"
+RESULTS_DIR="${RESULTS_DIR:-target/bench/virtual-threads}"
+
+cd "$(dirname "$0")/.."
+mkdir -p "$RESULTS_DIR"
+
+mvn -B -q -Pjava21 package -DskipTests
+JAR="$(ls target/todo-api-*.jar | grep -v original | head -n 1)"
+
+wait_for_app() {
+  for _ in $(seq 1 120); do
+    if curl -sf "${BASE_URL}/actuator/health" > /dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "application did not become healthy" >&2
+  return 1
+}
+
+run_mode() {
+  local mode="$1"
+  local profiles="$2"
+  local log="${RESULTS_DIR}/${mode}-app.log"
+
+  echo "==> ${mode}"
+  java -Djdk.tracePinnedThreads=short -jar "$JAR" \
+    --server.port="$PORT" \
+    --spring.profiles.active="$profiles" \
+    --spring.cache.type=none \
+    --spring.datasource.hikari.maximum-pool-size="$POOL_SIZE" \
+    --spring.datasource.hikari.connection-timeout=5000 \
+    --spring.jpa.show-sql=false \
+    --logging.level.com.olixc.todo=INFO \
+    --logging.level.org.springframework.web=INFO \
+    > "$log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+
+  wait_for_app
+  local id
+  id="$(curl -sf -H 'Content-Type: application/json' \
+    -d '{"title":"benchmark todo","description":"virtual thread benchmark"}' \
+    "${BASE_URL}/api/v1/todos" | sed -E 's/.*"id":([0-9]+).*/\1/')"
+
+  # Warm-up so JIT compilation doesn't count against either mode
+  wrk -t"$THREADS" -c500 -d15s "${BASE_URL}/api/v1/todos/${id}" > /dev/null
+  wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --timeout 10s --latency \
+    "${BASE_URL}/api/v1/todos/${id}" | tee "${RESULTS_DIR}/${mode}-wrk.txt"
+
+  curl -sf -X DELETE "${BASE_URL}/api/v1/todos/${id}" > /dev/null || true
+  if grep -q "VirtualThread.*pinned\|<== monitors" "$log"; then
+    echo "WARNING: pinned virtual threads reported, see $log" >&2
+  fi
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+run_mode platform "${SPRING_PROFILES_ACTIVE:-default}"
+run_mode virtual "${SPRING_PROFILES_ACTIVE:-default},virtual-threads"
+
+summary() {
+  local file="${RESULTS_DIR}/$1-wrk.txt"
+  local rps p99
+  rps="$(awk '/Requests\/sec/ {print $2}' "$file")"
+  p99="$(awk '$1 == "99%" {print $2}' "$file")"
+  printf '%-10s %15s %12s\n' "$1" "$rps" "$p99"
+}
+
+echo
+echo "pool size ${POOL_SIZE}"
+printf '%-10s %15s %12s\n' mode requests/sec p99
+summary platform
+summary virtual
@@ -0,0 +1,50 @@
+package com.olixc.todo.benchmark;
+
+import com.olixc.todo.TodoApiApplication;
+import com.olixc.todo.search.TitleSearchIndex;
+import com.olixc.todo.service.TodoStatsCounter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Boots the application (without a web server) on an in-memory H2 database seeded with
+// the given number of todos. Titles are "Todo <n>"; every third todo is completed.
+final class BenchmarkContext {
+
+    static final String SEARCH_TERM = "todo 42";
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(int rows) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        // Measure the repository path, not the read-through cache
+                        "--spring.cache.type=none",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.olixc.todo=WARN",
+                        "--logging.level.org.springframework.web=WARN");
+        seed(context, rows);
+        return context;
+    }
+
+    private static void seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO todos (id, title, description, completed, created_at, updated_at) "
+                + "SELECT X, 'Todo ' || X, 'Seeded todo number ' || X, MOD(X, 3) = 0, "
+                + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, ?)", rows);
+        // Hibernate's pooled optimizer treats a sequence value as the top of a block of 50
+        jdbc.execute("ALTER SEQUENCE todos_seq RESTART WITH " + (rows + 100));
+        context.getBean(TitleSearchIndex.class).rebuild();
+        context.getBean(TodoStatsCounter.class).reconcile();
+    }
+}
@@ -0,0 +1,74 @@
+package com.olixc.todo.benchmark;
+
+import com.olixc.todo.ratelimit.RateLimitFilter;
+import com.olixc.todo.ratelimit.RateLimitProperties;
+import com.olixc.todo.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Overhead of RateLimitFilter per request: a request on a limited route (route matching, bucket
+// lookup among `clients` buckets, one CAS) against one matching no route. Run with -t to see
+// contention, e.g. -Djmh.args="RateLimitBenchmark -t 8".
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest[] limited;
+    private MockHttpServletRequest unlimited;
+    private final FilterChain chain = (request, response) -> { };
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+    }
+
+    @Setup
+    public void setUp() {
+        // Rates high enough that no request is throttled; the admitted path is the common one
+        Set<String> keys = IntStream.range(0, clients).mapToObj(i -> "client-" + i).collect(Collectors.toSet());
+        filter = new RateLimitFilter(new RateLimiter(new RateLimitProperties("X-API-Key", keys, 100_000, Duration.ofMinutes(10), 0, List.of(
+                new RateLimitProperties.Route("search", List.of("/api/v1/todos/search"), List.of("GET"), 1e9, 1_000_000),
+                new RateLimitProperties.Route("list", List.of("/api/v1/todos", "/api/v1/todos/completed", "/api/v1/todos/pending"),
+                        List.of("GET"), 1e9, 1_000_000),
+                new RateLimitProperties.Route("item", List.of("/api/v1/todos/*"), List.of("GET"), 1e9, 1_000_000))),
+                new SimpleMeterRegistry()));
+        limited = new MockHttpServletRequest[clients];
+        for (int i = 0; i < clients; i++) {
+            limited[i] = new MockHttpServletRequest("GET", "/api/v1/todos/" + i);
+            limited[i].addHeader("X-API-Key", "client-" + i);
+        }
+        unlimited = new MockHttpServletRequest("GET", "/actuator/health");
+    }
+
+    @Benchmark
+    public void limitedRequest(Cursor cursor) throws ServletException, IOException {
+        MockHttpServletRequest request = limited[cursor.next++ % clients];
+        filter.doFilter(request, cursor.response, chain);
+    }
+
+    @Benchmark
+    public void unlimitedRequest(Cursor cursor) throws ServletException, IOException {
+        filter.doFilter(unlimited, cursor.response, chain);
+    }
+}
@@ -0,0 +1,90 @@
+package com.olixc.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olixc.todo.dto.TodoColumns;
+import com.olixc.todo.dto.TodoView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Serialization CPU of list bodies per format and layout, with and without gzip (as Tomcat
+// compresses them). Body sizes on the wire are the secondary results "size:bytes" and
+// "size:gzipBytes" of the size benchmark, so they appear in the JSON results (-rf json).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"rows", "columnar"})
+    public String layout;
+
+    @Param({"100", "1000"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private Object body;
+
+    // Sizes of one serialized body. EVENTS counters are reported as is, but add up over
+    // measured iterations; size runs a single one.
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class BodySize {
+
+        public long bytes;
+        public long gzipBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        List<TodoView> todos = new ArrayList<>(listSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= listSize; id++) {
+            todos.add(new TodoView(id, "Todo " + id, "Seeded todo number " + id, id % 3 == 0, now, now, 0L));
+        }
+        body = layout.equals("columnar") ? TodoColumns.of(todos) : todos;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, body);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Not a timing: one single-shot invocation per trial records the body sizes in BodySize.
+    // Keep it to one measured iteration (don't override -i for it), or the sizes add up.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void size(BodySize size) throws IOException {
+        size.bytes = serialize().length;
+        size.gzipBytes = serializeGzip().length;
+    }
+}
@@ -0,0 +1,59 @@
+package com.olixc.todo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olixc.todo.entity.Todo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of a single Todo and of List<Todo> response bodies
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int listSize;
+
+    // Configured like the application's ObjectMapper (ISO dates, java.time support)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Todo todo;
+    private List<Todo> todos;
+
+    @Setup
+    public void setUp() {
+        todo = todo(1);
+        todos = new ArrayList<>(listSize);
+        for (int i = 1; i <= listSize; i++) {
+            todos.add(todo(i));
+        }
+    }
+
+    private static Todo todo(long id) {
+        Todo todo = new Todo("Todo " + id, "Seeded todo number " + id);
+        todo.setId(id);
+        todo.setCompleted(id % 3 == 0);
+        todo.setCreatedAt(LocalDateTime.now());
+        todo.setUpdatedAt(LocalDateTime.now());
+        return todo;
+    }
+
+    @Benchmark
+    public byte[] serializeTodo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todo);
+    }
+
+    @Benchmark
+    public byte[] serializeTodoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+}
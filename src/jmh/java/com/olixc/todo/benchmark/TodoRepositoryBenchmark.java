@@ -0,0 +1,66 @@
+package com.olixc.todo.benchmark;
+
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.repository.TodoRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Raw TodoRepository queries against an H2 table of 1k / 100k / 1M todos
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TodoRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TodoRepository todoRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        todoRepository = context.getBean(TodoRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Todo> findById() {
+        return todoRepository.findById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public List<Todo> findByTitleContainingIgnoreCase() {
+        return todoRepository.findByTitleContainingIgnoreCase(BenchmarkContext.SEARCH_TERM);
+    }
+
+    @Benchmark
+    public List<Todo> findByCompletedFalse() {
+        return todoRepository.findByCompletedFalse();
+    }
+
+    @Benchmark
+    public List<Todo> keysetPage() {
+        long afterId = ThreadLocalRandom.current().nextLong(0, rows);
+        return todoRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(50));
+    }
+
+    @Benchmark
+    public TodoStats countByStatus() {
+        return todoRepository.countByStatus();
+    }
+}
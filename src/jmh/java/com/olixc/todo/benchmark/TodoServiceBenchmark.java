@@ -0,0 +1,58 @@
+package com.olixc.todo.benchmark;
+
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.service.TodoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// TodoService hot paths against an H2 table of 1k / 100k / 1M todos
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TodoServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TodoService todoService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        todoService = context.getBean(TodoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Todo> getAllTodos() {
+        return todoService.getAllTodos();
+    }
+
+    @Benchmark
+    public List<Todo> searchTodosByTitle() {
+        return todoService.searchTodosByTitle(BenchmarkContext.SEARCH_TERM);
+    }
+
+    @Benchmark
+    public Optional<Todo> getTodoById() {
+        return todoService.getTodoById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public Todo createTodo() {
+        return todoService.createTodo(new Todo("Benchmark todo", "Created by TodoServiceBenchmark"));
+    }
+}
@@ -0,0 +1,13 @@
+package com.olixc.todo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Caffeine-backed caching; size, TTL and stats are set by spring.cache.caffeine.spec
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Todo entities by id, filled by TodoService.getTodoById
+    public static final String TODO_CACHE = "todos";
+}
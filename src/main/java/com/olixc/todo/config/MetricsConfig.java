@@ -0,0 +1,32 @@
+package com.olixc.todo.config;
+
+import com.olixc.todo.metrics.RepositoryResultSizeInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+// Metrics on top of the auto-configured ones: http.server.requests (per endpoint),
+// spring.data.repository.invocations (per repository method) and hikaricp.* (pool);
+// their histograms and expected ranges are set under management.metrics in application.yml
+@Configuration
+public class MetricsConfig {
+
+    // Adds the result-size interceptor to every Spring Data repository proxy
+    @Bean
+    static BeanPostProcessor repositoryResultSizeMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryResultSizeInterceptor(
+                                    meterRegistry.getObject(), repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
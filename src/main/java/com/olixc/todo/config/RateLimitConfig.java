@@ -0,0 +1,28 @@
+package com.olixc.todo.config;
+
+import com.olixc.todo.ratelimit.RateLimitFilter;
+import com.olixc.todo.ratelimit.RateLimitProperties;
+import com.olixc.todo.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Per-client rate limits on the API routes (todo.rate-limit); /api/v2 applies the same
+// RateLimiter through a WebFilter (see ReactiveApiServer)
+@Configuration
+@ConditionalOnProperty(name = "todo.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new RateLimiter(properties, meterRegistry);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter) {
+        return new RateLimitFilter(rateLimiter);
+    }
+}
@@ -0,0 +1,67 @@
+package com.olixc.todo.config;
+
+import com.olixc.todo.routing.ReadReplicaProperties;
+import com.olixc.todo.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// With todo.read-replicas.enabled, read-only transactions run on the replicas and writes on
+// the primary (spring.datasource). Flyway migrates the primary only; replicas receive the
+// schema through replication.
+@Configuration
+@ConditionalOnProperty(name = "todo.read-replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Replica pools use Hikari's defaults and report the same hikaricp.* metrics as the primary
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties primaryProperties,
+                                                             ReadReplicaProperties replicaProperties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReadReplicaProperties.Replica replica : replicaProperties.datasources()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + (replicas.size() + 1));
+            dataSource.setJdbcUrl(replica.url());
+            dataSource.setUsername(replica.username() != null ? replica.username() : primaryProperties.determineUsername());
+            dataSource.setPassword(replica.password() != null ? replica.password() : primaryProperties.determinePassword());
+            dataSource.setDriverClassName(primaryProperties.determineDriverClassName());
+            dataSource.setReadOnly(true);
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(dataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    // The DataSource used by JPA, JdbcTemplate and the transaction manager
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
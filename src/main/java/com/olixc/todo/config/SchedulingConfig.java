@@ -0,0 +1,10 @@
+package com.olixc.todo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs such as the periodic reconciliation of the todo counters
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
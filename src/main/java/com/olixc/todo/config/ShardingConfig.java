@@ -0,0 +1,92 @@
+package com.olixc.todo.config;
+
+import com.olixc.todo.sharding.ShardIds;
+import com.olixc.todo.sharding.ShardRoutingDataSource;
+import com.olixc.todo.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// With todo.sharding.enabled, todos are spread over spring.datasource (the first shard) and
+// the todo.sharding.datasources. Every shard holds the full schema, migrated by Flyway at
+// startup. Read replicas and /api/v2 still address a single database, so they must be off.
+@Configuration
+@ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    public ShardingConfig(@Value("${todo.read-replicas.enabled:false}") boolean readReplicas,
+                          @Value("${todo.v2.enabled:true}") boolean reactiveApi) {
+        if (readReplicas || reactiveApi) {
+            throw new IllegalStateException("todo.sharding cannot be combined with todo.read-replicas or todo.v2; disable them");
+        }
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource firstShardDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+
+    // Further shard pools use Hikari's defaults and report the same hikaricp.* metrics as the first
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource firstShardDataSource,
+                                                         DataSourceProperties firstShardProperties,
+                                                         ShardingProperties shardingProperties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        // Ids have room for the index of at most ShardIds.MAX_SHARDS shards
+        if (shardingProperties.datasources().size() >= ShardIds.MAX_SHARDS) {
+            throw new IllegalStateException("todo.sharding supports at most " + ShardIds.MAX_SHARDS + " shards");
+        }
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(firstShardDataSource);
+        for (ShardingProperties.Shard shard : shardingProperties.datasources()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + shards.size());
+            dataSource.setJdbcUrl(shard.url());
+            dataSource.setUsername(shard.username() != null ? shard.username() : firstShardProperties.determineUsername());
+            dataSource.setPassword(shard.password() != null ? shard.password() : firstShardProperties.determinePassword());
+            dataSource.setDriverClassName(firstShardProperties.determineDriverClassName());
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // The DataSource used by JPA, JdbcTemplate and the transaction manager
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Apply the spring.flyway migrations to every shard, not just the first
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            for (DataSource shard : shardRoutingDataSource.shards()) {
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+            }
+        };
+    }
+}
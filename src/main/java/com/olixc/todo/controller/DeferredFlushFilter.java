@@ -0,0 +1,101 @@
+package com.olixc.todo.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Ignores flushes of a synchronous response body, so a body that fits in the container's
+ * response buffer is sent once complete, with a Content-Length. Spring's message converters
+ * flush after every body, which would commit the response early as chunked; Tomcat then
+ * cannot apply {@code server.compression.min-response-size} and compresses every body.
+ * Larger bodies are still streamed when the buffer fills, and async responses (SSE, NDJSON
+ * export) flush as before.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class DeferredFlushFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, new DeferredFlushResponse(request, response));
+    }
+
+    private static final class DeferredFlushResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private ServletOutputStream outputStream;
+
+        private DeferredFlushResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (request.isAsyncStarted()) {
+                super.flushBuffer();
+            }
+        }
+
+        private final class DeferredFlushOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            private DeferredFlushOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (request.isAsyncStarted()) {
+                    delegate.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.olixc.todo.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Formats a todo is served in (see MessageConverterConfig), and the one a request's Accept
+// header selects. The choice follows Spring MVC's: the most specific, highest quality accepted
+// type first, then converter order, so JSON answers */*. A handler that tags a body with its
+// format also sets the format as Content-Type, so the converter writes exactly that one.
+final class ResponseFormats {
+
+    static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    static final List<MediaType> ALL = List.of(MediaType.APPLICATION_JSON, CBOR, SMILE);
+
+    private ResponseFormats() {
+    }
+
+    static MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(accept == null || accept.isBlank() ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotAcceptableException(e.getMessage());
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType format : ALL) {
+                if (type.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(ALL);
+    }
+}
@@ -1,40 +1,149 @@
 package com.olixc.todo.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olixc.todo.dto.BulkRequest;
+import com.olixc.todo.dto.BulkResponse;
+import com.olixc.todo.dto.CursorPage;
+import com.olixc.todo.dto.TodoBatch;
+import com.olixc.todo.dto.TodoColumns;
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.dto.TodoPatch;
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.dto.TodoView;
 import com.olixc.todo.entity.Todo;
+import com.olixc.todo.feed.TodoChangeFeed;
+import com.olixc.todo.routing.ConsistencyToken;
 import com.olixc.todo.service.TodoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/todos")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {HttpHeaders.ETAG, ConsistencyToken.HEADER})
 @Tag(name = "Todo API", description = "RESTful API for managing todos")
 public class TodoController {
 
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String MERGE_PATCH_VALUE = "application/merge-patch+json";
+
+    public static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    // Request parameter selecting the columnar list layout
+    public static final String COLUMNAR = "layout=columnar";
+
     @Autowired
     private TodoService todoService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoChangeFeed todoChangeFeed;
+
     // GET /api/v1/todos - Get all todos
     @GetMapping
     @Operation(summary = "Get all todos", description = "Retrieve a list of all todos")
-    public ResponseEntity<List<Todo>> getAllTodos() {
-        List<Todo> todos = todoService.getAllTodos();
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoView>> getAllTodos(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalList(ifNoneMatch, todoService.getListVersion(), todoService::getAllTodoViews);
+    }
+
+    // GET /api/v1/todos?ids=1,2,3 - Get many todos by id in one round trip
+    @GetMapping(params = {"ids", "!limit"})
+    @Operation(summary = "Get todos by ids", description = "Up to 1000 todos in request order; ids that do not exist are listed under missing")
+    public ResponseEntity<TodoBatch> getTodosByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(todoService.getTodosByIds(ids));
+    }
+
+    // POST /api/v1/todos/batch-get - Same as GET ?ids=..., with the ids as a JSON array body
+    @PostMapping("/batch-get")
+    @Operation(summary = "Get todos by ids (long lists)", description = "Body is a JSON array of up to 1000 ids; answers like GET /api/v1/todos?ids=...")
+    public ResponseEntity<TodoBatch> getTodosByIdsPost(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(todoService.getTodosByIds(ids));
+    }
+
+    // GET /api/v1/todos?layout=columnar - Get all todos as one array per field
+    @GetMapping(params = {COLUMNAR, "!limit", "!ids"})
+    @Operation(summary = "Get all todos in columnar layout", description = "Same list as GET /api/v1/todos, as parallel arrays of ids, titles, descriptions, flags and timestamps")
+    public ResponseEntity<TodoColumns> getAllTodosColumnar(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalList(ifNoneMatch, todoService.getListVersion(), () -> TodoColumns.of(todoService.getAllTodoViews()));
+    }
+
+    // GET /api/v1/todos?limit=50&cursor=... - Get a page of todos
+    @GetMapping(params = "limit")
+    @Operation(summary = "Get a page of todos", description = "Keyset pagination ordered by id; pass the returned next cursor to fetch the following page")
+    public ResponseEntity<CursorPage<Todo>> getTodosPage(@RequestParam int limit,
+                                                         @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(todoService.getTodosPage(cursor, limit));
+    }
+
+    // GET /api/v1/todos/export - Stream all todos as newline-delimited JSON
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    @Operation(summary = "Export all todos", description = "Stream every todo as newline-delimited JSON in id order")
+    public ResponseEntity<StreamingResponseBody> exportTodos() {
+        StreamingResponseBody body = out -> todoService.exportTodos(todo -> writeLine(out, todo));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    // GET /api/v1/todos/changes - Stream committed changes as server-sent events
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream todo changes", description = "Server-sent events for every committed create, update and delete; reconnect with Last-Event-ID to resume. A reset event means changes were missed and the list should be fetched again")
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+        SseEmitter emitter = todoChangeFeed.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    // GET /api/v1/todos/stats - Get todo counts by status
+    @GetMapping("/stats")
+    @Operation(summary = "Get todo counts", description = "Total, completed and pending counts from in-memory counters")
+    public ResponseEntity<TodoStats> getStats() {
+        return ResponseEntity.ok(todoService.getStats());
     }
 
     // GET /api/v1/todos/{id} - Get todo by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Todo> getTodoById(@PathVariable Long id) {
+    public ResponseEntity<Todo> getTodoById(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType format = ResponseFormats.negotiate(accept);
+        // Revalidation reads only the version, so an unchanged todo is never loaded or serialized
+        if (ifNoneMatch != null) {
+            Optional<Long> version = todoService.getTodoVersion(id);
+            if (version.isPresent()) {
+                String etag = TodoETags.of(id, version.get(), format);
+                if (TodoETags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+                }
+            }
+        }
         Optional<Todo> todo = todoService.getTodoById(id);
         if (todo.isPresent()) {
-            return ResponseEntity.ok(todo.get());
+            return ResponseEntity.ok().contentType(format).eTag(TodoETags.of(todo.get(), format)).body(todo.get());
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -45,7 +154,15 @@ public class TodoController {
     @Operation(summary = "Create a new todo", description = "Create a new todo item")
     public ResponseEntity<Todo> createTodo(@RequestBody Todo todo) {
         Todo createdTodo = todoService.createTodo(todo);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTodo);
+        return ResponseEntity.status(HttpStatus.CREATED).header(ConsistencyToken.HEADER, ConsistencyToken.issue()).body(createdTodo);
+    }
+
+    // POST /api/v1/todos/bulk - Create, update and delete many todos in one call
+    @PostMapping("/bulk")
+    @Operation(summary = "Bulk create, update and delete", description = "Apply up to 10000 creates, updates and deletes in one transaction and report the result of every item")
+    public ResponseEntity<BulkResponse> bulkTodos(@RequestBody BulkRequest request) {
+        BulkResponse response = todoService.bulkApply(request);
+        return ResponseEntity.ok().header(ConsistencyToken.HEADER, ConsistencyToken.issue()).body(response);
     }
 
     // PUT /api/v1/todos/{id} - Update todo
@@ -53,7 +170,25 @@ public class TodoController {
     public ResponseEntity<Todo> updateTodo(@PathVariable Long id, @RequestBody Todo todoDetails) {
         Todo updatedTodo = todoService.updateTodo(id, todoDetails);
         if (updatedTodo != null) {
-            return ResponseEntity.ok(updatedTodo);
+            return ResponseEntity.ok().header(ConsistencyToken.HEADER, ConsistencyToken.issue()).body(updatedTodo);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // PATCH /api/v1/todos/{id} - Partially update todo (JSON Merge Patch)
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Partially update a todo", description = "Apply a JSON Merge Patch; send the todo's ETag in If-Match to update only if it is unchanged")
+    public ResponseEntity<Todo> patchTodo(@PathVariable Long id,
+                                          @RequestBody JsonNode patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType format = ResponseFormats.negotiate(accept);
+        Todo patchedTodo = todoService.patchTodo(id, TodoPatch.from(patch), TodoETags.expectedVersion(ifMatch, id));
+        if (patchedTodo != null) {
+            return ResponseEntity.ok().contentType(format).eTag(TodoETags.of(patchedTodo, format))
+                    .header(ConsistencyToken.HEADER, ConsistencyToken.issue()).body(patchedTodo);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -64,7 +199,7 @@ public class TodoController {
     public ResponseEntity<Void> deleteTodo(@PathVariable Long id) {
         boolean deleted = todoService.deleteTodo(id);
         if (deleted) {
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.noContent().header(ConsistencyToken.HEADER, ConsistencyToken.issue()).build();
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -72,22 +207,96 @@ public class TodoController {
 
     // GET /api/v1/todos/completed - Get completed todos
     @GetMapping("/completed")
-    public ResponseEntity<List<Todo>> getCompletedTodos() {
-        List<Todo> todos = todoService.getCompletedTodos();
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoView>> getCompletedTodos(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalList(ifNoneMatch, todoService.getListVersion(true), todoService::getCompletedTodoViews);
+    }
+
+    // GET /api/v1/todos/completed?layout=columnar - Get completed todos as one array per field
+    @GetMapping(value = "/completed", params = {COLUMNAR, "!limit"})
+    public ResponseEntity<TodoColumns> getCompletedTodosColumnar(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalList(ifNoneMatch, todoService.getListVersion(true), () -> TodoColumns.of(todoService.getCompletedTodoViews()));
+    }
+
+    // GET /api/v1/todos/completed?limit=50&cursor=... - Get a page of completed todos
+    @GetMapping(value = "/completed", params = "limit")
+    public ResponseEntity<CursorPage<Todo>> getCompletedTodosPage(@RequestParam int limit,
+                                                                  @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(todoService.getCompletedTodosPage(cursor, limit));
     }
 
     // GET /api/v1/todos/pending - Get pending todos
     @GetMapping("/pending")
-    public ResponseEntity<List<Todo>> getPendingTodos() {
-        List<Todo> todos = todoService.getPendingTodos();
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoView>> getPendingTodos(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalList(ifNoneMatch, todoService.getListVersion(false), todoService::getPendingTodoViews);
+    }
+
+    // GET /api/v1/todos/pending?layout=columnar - Get pending todos as one array per field
+    @GetMapping(value = "/pending", params = {COLUMNAR, "!limit"})
+    public ResponseEntity<TodoColumns> getPendingTodosColumnar(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalList(ifNoneMatch, todoService.getListVersion(false), () -> TodoColumns.of(todoService.getPendingTodoViews()));
+    }
+
+    // GET /api/v1/todos/pending?limit=50&cursor=... - Get a page of pending todos
+    @GetMapping(value = "/pending", params = "limit")
+    public ResponseEntity<CursorPage<Todo>> getPendingTodosPage(@RequestParam int limit,
+                                                                @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(todoService.getPendingTodosPage(cursor, limit));
     }
 
     // GET /api/v1/todos/search?title=keyword - Search todos by title
     @GetMapping("/search")
-    public ResponseEntity<List<Todo>> searchTodosByTitle(@RequestParam String title) {
-        List<Todo> todos = todoService.searchTodosByTitle(title);
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoView>> searchTodosByTitle(@RequestParam String title,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Tagged with the version of the whole table: any change may alter the matches
+        return conditionalList(ifNoneMatch, todoService.getListVersion(), () -> todoService.searchTodoViewsByTitle(title));
+    }
+
+    // GET /api/v1/todos/search?title=keyword&layout=columnar - Search todos by title, one array per field
+    @GetMapping(value = "/search", params = {COLUMNAR, "!limit"})
+    public ResponseEntity<TodoColumns> searchTodosByTitleColumnar(@RequestParam String title,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalList(ifNoneMatch, todoService.getListVersion(), () -> TodoColumns.of(todoService.searchTodoViewsByTitle(title)));
+    }
+
+    // GET /api/v1/todos/search?title=keyword&limit=50&cursor=... - Search todos by title, one page at a time
+    @GetMapping(value = "/search", params = "limit")
+    public ResponseEntity<CursorPage<Todo>> searchTodosByTitlePage(@RequestParam String title,
+                                                                   @RequestParam int limit,
+                                                                   @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(todoService.searchTodosByTitlePage(title, cursor, limit));
+    }
+
+    // Answer 304 when the client's copy of the list is current, otherwise load it and tag it.
+    // The version is read before the list, so the tag is never newer than the body. Lists are
+    // negotiated (JSON, CBOR, Smile), so caches must keep one copy per Accept header
+    // (VaryByAcceptAdvice adds it to bodies; a 304 has none).
+    private <T> ResponseEntity<T> conditionalList(String ifNoneMatch, TodoListVersion version, Supplier<T> loader) {
+        String etag = TodoETags.weak(TodoETags.of(version));
+        if (TodoETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(loader.get());
+    }
+
+    private void writeLine(OutputStream out, Todo todo) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(todo));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Malformed cursors and out-of-range limits are client errors
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    // The todo changed since the client read it (If-Match mismatch or a concurrent write)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(Map.of("error", "The todo has been modified; fetch it again and retry"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.olixc.todo.controller;
+
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.entity.Todo;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+// Entity tags for todo resources and lists, and If-None-Match evaluation. A todo's tag is
+// strong (If-Match compares it), so it names the format as well as the version: JSON keeps
+// the plain tag, CBOR and Smile add a suffix. Lists are sent weak because one list version
+// covers several representations (JSON, CBOR, Smile, columnar, gzip), and Tomcat won't
+// compress strong-tagged bodies.
+final class TodoETags {
+
+    private static final Map<MediaType, String> FORMAT_SUFFIXES = Map.of(
+            ResponseFormats.CBOR, "-cbor",
+            ResponseFormats.SMILE, "-smile");
+
+    private TodoETags() {
+    }
+
+    static String of(Todo todo) {
+        return of(todo, MediaType.APPLICATION_JSON);
+    }
+
+    static String of(Todo todo, MediaType format) {
+        return of(todo.getId(), todo.getVersion(), format);
+    }
+
+    static String of(Long id, Long version, MediaType format) {
+        return quote(id + "-" + version + FORMAT_SUFFIXES.getOrDefault(format, ""));
+    }
+
+    static String of(TodoListVersion version) {
+        return quote(version.count() + "-" + version.maxId() + "-" + micros(version.maxUpdatedAt()));
+    }
+
+    static String weak(String etag) {
+        return "W/" + etag;
+    }
+
+    // If-None-Match uses the weak comparison: a W/ prefix on either side is ignored
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Version named by an If-Match header: null when any version is acceptable (no header
+    // or "*"). The tag of any format names the version. A weak tag, which If-Match never
+    // accepts, or one this server did not issue for the todo yields -1, which matches no version.
+    static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        String tag = ifMatch.trim();
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            String version = tag.substring(prefix.length(), tag.length() - 1);
+            for (String suffix : FORMAT_SUFFIXES.values()) {
+                if (version.endsWith(suffix)) {
+                    version = version.substring(0, version.length() - suffix.length());
+                }
+            }
+            try {
+                return Long.parseLong(version);
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }
+        return -1L;
+    }
+
+    // Timestamps are compared at microsecond precision, the finest the database stores
+    private static String micros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return "0";
+        }
+        return Long.toString(ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), timestamp));
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -0,0 +1,20 @@
+package com.olixc.todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Outcome of one item of a bulk request; index is the item's position in its request list
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(int index, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, INVALID
+    }
+
+    public static BulkItemResult of(int index, Long id, Status status) {
+        return new BulkItemResult(index, id, status, null);
+    }
+
+    public static BulkItemResult invalid(int index, Long id, String error) {
+        return new BulkItemResult(index, id, Status.INVALID, error);
+    }
+}
@@ -0,0 +1,25 @@
+package com.olixc.todo.dto;
+
+import com.olixc.todo.entity.Todo;
+
+import java.util.List;
+
+// Body of POST /api/v1/todos/bulk. Any of the three lists may be omitted.
+public record BulkRequest(List<Todo> create, List<Todo> update, List<Long> delete) {
+
+    public List<Todo> createOrEmpty() {
+        return create != null ? create : List.of();
+    }
+
+    public List<Todo> updateOrEmpty() {
+        return update != null ? update : List.of();
+    }
+
+    public List<Long> deleteOrEmpty() {
+        return delete != null ? delete : List.of();
+    }
+
+    public int size() {
+        return createOrEmpty().size() + updateOrEmpty().size() + deleteOrEmpty().size();
+    }
+}
@@ -0,0 +1,7 @@
+package com.olixc.todo.dto;
+
+import java.util.List;
+
+// Per-item results of a bulk request, in the same order as the request lists
+public record BulkResponse(List<BulkItemResult> created, List<BulkItemResult> updated, List<BulkItemResult> deleted) {
+}
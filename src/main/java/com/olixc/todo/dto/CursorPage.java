@@ -0,0 +1,44 @@
+package com.olixc.todo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing. "next" is an opaque cursor for the
+// following page and is null once the last page has been reached.
+public record CursorPage<T>(List<T> items, String next) {
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    // Build a page from a query that fetched up to limit + 1 rows; the extra row
+    // only signals that another page exists and is not returned.
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, encodeCursor(idOf.apply(items.get(limit - 1))));
+    }
+
+    public static String encodeCursor(Long lastId) {
+        byte[] raw = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    // Returns the id the next page starts after; a missing cursor means the first page
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.olixc.todo.dto;
+
+import com.olixc.todo.entity.Todo;
+
+import java.util.List;
+
+// Result of a multi-get: the todos found, in the order their ids were requested
+// (duplicates once), and the requested ids that do not exist
+public record TodoBatch(List<Todo> todos, List<Long> missing) {
+}
@@ -0,0 +1,8 @@
+package com.olixc.todo.dto;
+
+import com.olixc.todo.event.TodoChangedEvent;
+
+// One entry of the change feed. seq increases with every committed write; todo is the
+// state after the write, or null for deletes.
+public record TodoChange(long seq, TodoChangedEvent.Type type, Long id, TodoView todo) {
+}
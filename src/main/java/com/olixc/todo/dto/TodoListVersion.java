@@ -0,0 +1,29 @@
+package com.olixc.todo.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Row count, highest id and latest update of a set of todos. Any create, update or
+// delete in the set changes at least one of them, so it versions a list response.
+public record TodoListVersion(long count, Long maxId, LocalDateTime maxUpdatedAt) {
+
+    // Version of the union of disjoint sets, e.g. of the same list on every shard
+    public static TodoListVersion combine(List<TodoListVersion> versions) {
+        if (versions.size() == 1) {
+            return versions.get(0);
+        }
+        long count = 0;
+        Long maxId = null;
+        LocalDateTime maxUpdatedAt = null;
+        for (TodoListVersion version : versions) {
+            count += version.count();
+            if (version.maxId() != null && (maxId == null || version.maxId() > maxId)) {
+                maxId = version.maxId();
+            }
+            if (version.maxUpdatedAt() != null && (maxUpdatedAt == null || version.maxUpdatedAt().isAfter(maxUpdatedAt))) {
+                maxUpdatedAt = version.maxUpdatedAt();
+            }
+        }
+        return new TodoListVersion(count, maxId, maxUpdatedAt);
+    }
+}
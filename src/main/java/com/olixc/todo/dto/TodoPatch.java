@@ -0,0 +1,46 @@
+package com.olixc.todo.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+// A JSON Merge Patch (RFC 7396) of a todo. Absent members are left unchanged and a null
+// member removes the value, which only description allows; title and completed are required.
+public record TodoPatch(String title, boolean hasDescription, String description, Boolean completed) {
+
+    public static TodoPatch from(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        String title = null;
+        boolean hasDescription = false;
+        String description = null;
+        Boolean completed = null;
+        for (Map.Entry<String, JsonNode> member : (Iterable<Map.Entry<String, JsonNode>>) patch::fields) {
+            JsonNode value = member.getValue();
+            switch (member.getKey()) {
+                case "title" -> {
+                    if (!value.isTextual()) {
+                        throw new IllegalArgumentException("title must be a string");
+                    }
+                    title = value.textValue();
+                }
+                case "description" -> {
+                    if (!value.isNull() && !value.isTextual()) {
+                        throw new IllegalArgumentException("description must be a string or null");
+                    }
+                    hasDescription = true;
+                    description = value.isNull() ? null : value.textValue();
+                }
+                case "completed" -> {
+                    if (!value.isBoolean()) {
+                        throw new IllegalArgumentException("completed must be true or false");
+                    }
+                    completed = value.booleanValue();
+                }
+                default -> throw new IllegalArgumentException(member.getKey() + " cannot be patched");
+            }
+        }
+        return new TodoPatch(title, hasDescription, description, completed);
+    }
+}
@@ -0,0 +1,23 @@
+package com.olixc.todo.dto;
+
+import java.util.List;
+
+// Todo counts by completion status
+public record TodoStats(long total, long completed, long pending) {
+
+    // Used by the aggregate query; sum() over an empty table is null
+    public TodoStats(Long total, Long completed) {
+        this(total, completed != null ? completed : 0L, total - (completed != null ? completed : 0L));
+    }
+
+    // Counts of disjoint sets added up, e.g. of every shard
+    public static TodoStats sum(List<TodoStats> stats) {
+        long total = 0;
+        long completed = 0;
+        for (TodoStats counts : stats) {
+            total += counts.total();
+            completed += counts.completed();
+        }
+        return new TodoStats(total, completed, total - completed);
+    }
+}
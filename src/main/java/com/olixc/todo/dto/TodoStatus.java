@@ -0,0 +1,5 @@
+package com.olixc.todo.dto;
+
+// Id and completion flag of an existing todo
+public record TodoStatus(Long id, boolean completed) {
+}
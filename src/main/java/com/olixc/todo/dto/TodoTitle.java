@@ -0,0 +1,5 @@
+package com.olixc.todo.dto;
+
+// Id and title only, used to build the in-memory title search index
+public record TodoTitle(Long id, String title) {
+}
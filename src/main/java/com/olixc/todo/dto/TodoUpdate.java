@@ -0,0 +1,7 @@
+package com.olixc.todo.dto;
+
+import com.olixc.todo.entity.Todo;
+
+// A todo as stored by an update, with its completion flag from before the update
+public record TodoUpdate(Todo todo, boolean previousCompleted) {
+}
@@ -0,0 +1,22 @@
+package com.olixc.todo.dto;
+
+import com.olixc.todo.entity.Todo;
+
+import java.time.LocalDateTime;
+
+// Read-only view of a todo for list responses; serializes exactly like Todo (version
+// included, for If-Match and expectedVersion) but is selected column by column, so
+// Hibernate keeps no managed entity or snapshot for it
+public record TodoView(Long id,
+                       String title,
+                       String description,
+                       boolean completed,
+                       LocalDateTime createdAt,
+                       LocalDateTime updatedAt,
+                       Long version) {
+
+    public static TodoView of(Todo todo) {
+        return new TodoView(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+                todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion());
+    }
+}
@@ -1,35 +1,60 @@
 package com.olixc.todo.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
-import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UpdateTimestamp;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "todos")
+// UPDATEs name only the columns that changed, so toggling completed doesn't rewrite the title
+@DynamicUpdate
 public class Todo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids (allocated 50 at a time by Hibernate's pooled optimizer) keep JDBC
+    // insert batching available; IDENTITY columns force one round trip per insert.
+    // Sharded ids are chosen by the service instead (see TodoIdGenerator).
+    @GeneratedValue(generator = "todos_seq")
+    @GenericGenerator(name = "todos_seq", type = TodoIdGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "todos_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private Long id;
 
+    // Limits of the columns (V1__create_todos.sql), checked before every write (TodoValidator)
+    @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String title;
 
+    @Size(max = 255)
     private String description;
 
     @Column(nullable = false)
     private boolean completed = false;
 
-    @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
-    @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; incremented by every update and served as the ETag. Assigned by
+    // the server only, so a client cannot create or overwrite a todo with a chosen version.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     // Default constructor
     public Todo() {
     }
@@ -45,6 +70,19 @@ public class Todo {
         this.description = description;
     }
 
+    // Timestamps are set when the entity is persisted rather than when the INSERT
+    // runs: with sequence ids and batching the INSERT is deferred until flush
+    @PrePersist
+    void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -93,4 +131,12 @@ public class Todo {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,39 @@
+package com.olixc.todo.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.util.function.Supplier;
+
+// todos_seq ids, unless the service chose one for the todo being persisted: with sharding
+// enabled the id encodes the todo's shard (see com.olixc.todo.sharding.TodoShards#newId).
+// The id is handed over here rather than set on the entity, which Hibernate would then
+// take for a detached row.
+public class TodoIdGenerator extends SequenceStyleGenerator {
+
+    private static final ThreadLocal<Long> assignedId = new ThreadLocal<>();
+
+    // Run the action, giving the todo it persists this id; a null id leaves it to todos_seq
+    public static <T> T withId(Long id, Supplier<T> action) {
+        if (id == null) {
+            return action.get();
+        }
+        assignedId.set(id);
+        try {
+            return action.get();
+        } finally {
+            assignedId.remove();
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Long id = assignedId.get();
+        if (id != null) {
+            // One todo per assigned id
+            assignedId.remove();
+            return id;
+        }
+        return super.generate(session, object);
+    }
+}
@@ -0,0 +1,25 @@
+package com.olixc.todo.event;
+
+import com.olixc.todo.entity.Todo;
+
+// Published by TodoService after every successful write. For deletes todo is null.
+// previousCompleted is the completion flag before the write, or null when the write
+// path did not read the row first.
+public record TodoChangedEvent(Type type, Long id, Todo todo, Boolean previousCompleted) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static TodoChangedEvent created(Todo todo) {
+        return new TodoChangedEvent(Type.CREATED, todo.getId(), todo, null);
+    }
+
+    public static TodoChangedEvent updated(Todo todo, Boolean previousCompleted) {
+        return new TodoChangedEvent(Type.UPDATED, todo.getId(), todo, previousCompleted);
+    }
+
+    public static TodoChangedEvent deleted(Long id, Boolean previousCompleted) {
+        return new TodoChangedEvent(Type.DELETED, id, null, previousCompleted);
+    }
+}
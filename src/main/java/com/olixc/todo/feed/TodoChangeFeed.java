@@ -0,0 +1,228 @@
+package com.olixc.todo.feed;
+
+import com.olixc.todo.dto.TodoChange;
+import com.olixc.todo.dto.TodoView;
+import com.olixc.todo.event.TodoChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Server-sent-events feed of committed todo changes. Changes are numbered and kept in a
+ * bounded ring buffer so a client that reconnects with {@code Last-Event-ID} receives what
+ * it missed; a client too far behind gets a {@code reset} event and should re-fetch.
+ * <p>
+ * Writers only append to the buffer and wake subscribers. Each subscriber is drained by
+ * its own task on a separate pool, so a slow connection delays nobody but itself.
+ */
+@Component
+public class TodoChangeFeed {
+
+    static final String RESET_EVENT = "reset";
+
+    // Changes sent per buffer read, so the read lock is held briefly
+    private static final int DRAIN_BATCH = 256;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService drainExecutor = Executors.newCachedThreadPool(drainThreadFactory());
+
+    private TodoChange[] ring;
+    private long lastSeq;
+    private int size;
+
+    @Value("${todo.changes.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${todo.changes.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${todo.changes.timeout:PT30M}")
+    private Duration timeout;
+
+    @PostConstruct
+    void init() {
+        ring = new TodoChange[bufferSize];
+        // Start above any number a previous run could have issued, so an id from before a
+        // restart is recognised as unknown instead of silently skipping changes
+        lastSeq = System.currentTimeMillis() * 1000;
+    }
+
+    // Only committed changes are published; writes outside a transaction are published at once
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        TodoView todo = event.todo() != null ? TodoView.of(event.todo()) : null;
+        lock.writeLock().lock();
+        try {
+            lastSeq++;
+            ring[index(lastSeq)] = new TodoChange(lastSeq, event.type(), event.id(), todo);
+            size = Math.min(size + 1, ring.length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        subscribers.forEach(Subscriber::signal);
+    }
+
+    public long lastSequence() {
+        lock.readLock().lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to max changes after the given sequence number, oldest first. Empty when the feed
+    // cannot continue from there: changes after it were evicted, or it was never issued.
+    public Optional<List<TodoChange>> since(long seq, int max) {
+        lock.readLock().lock();
+        try {
+            long oldest = lastSeq - size + 1;
+            if (seq > lastSeq || seq < oldest - 1) {
+                return Optional.empty();
+            }
+            long to = Math.min(lastSeq, seq + max);
+            List<TodoChange> changes = new ArrayList<>((int) (to - seq));
+            for (long next = seq + 1; next <= to; next++) {
+                changes.add(ring[index(next)]);
+            }
+            return Optional.of(changes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Open a stream of changes after lastEventId, or of new changes when it is null.
+    // Returns null when the subscriber limit is reached.
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lastEventId != null ? lastEventId : lastSequence());
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.signal();
+        return emitter;
+    }
+
+    // Comment lines keep idle connections open through proxies and detect closed clients
+    @Scheduled(fixedDelayString = "${todo.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        drainExecutor.shutdownNow();
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private static ThreadFactory drainThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("todo-changes-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private int index(long seq) {
+        return (int) Math.floorMod(seq, (long) ring.length);
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue = true; // the first drain opens the stream
+        private volatile boolean closed;
+
+        // Only touched by the drain task, which never runs twice at once
+        private long cursor;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        void signal() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                drainExecutor.execute(this);
+            }
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            signal();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                drain();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter is already completed
+                close();
+                emitter.completeWithError(e);
+            } finally {
+                scheduled.set(false);
+            }
+            // A change appended after the last read but before the flag was cleared
+            if (!closed && lastSequence() > cursor) {
+                signal();
+            }
+        }
+
+        private void drain() throws IOException {
+            while (!closed) {
+                Optional<List<TodoChange>> changes = since(cursor, DRAIN_BATCH);
+                if (changes.isEmpty()) {
+                    cursor = lastSequence();
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).id(Long.toString(cursor)).data(cursor));
+                    continue;
+                }
+                if (changes.get().isEmpty()) {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    return;
+                }
+                for (TodoChange change : changes.get()) {
+                    emitter.send(SseEmitter.event().id(Long.toString(change.seq())).data(change));
+                    cursor = change.seq();
+                }
+                heartbeatDue = false;
+            }
+        }
+    }
+}
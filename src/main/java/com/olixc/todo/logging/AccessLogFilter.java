@@ -0,0 +1,93 @@
+package com.olixc.todo.logging;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * One structured line per request on the {@code com.olixc.todo.access} logger:
+ * {@code method=GET path=/api/v1/todos/42 status=200 duration_ms=3 sql=1}. Requests picked by
+ * {@link SqlTrace} also get their SQL on {@code com.olixc.todo.sql}, one line per statement
+ * carrying the same method, path and duration.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("com.olixc.todo.access");
+    private static final Logger sqlLog = LoggerFactory.getLogger("com.olixc.todo.sql");
+
+    @Autowired
+    private SqlTrace sqlTrace;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!accessLog.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        sqlTrace.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlTrace.Statements statements = sqlTrace.end();
+            if (request.isAsyncStarted()) {
+                // Streaming responses: log once the async request completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response, start, statements);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response, start, statements);
+            }
+        }
+    }
+
+    // Only the outermost dispatch is logged
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response, long start, SqlTrace.Statements statements) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        accessLog.info("method={} path={} status={} duration_ms={} sql={}", request.getMethod(), request.getRequestURI(),
+                response.getStatus(), elapsed.toMillis(), statements.count());
+        if (statements.count() > 0 && sqlLog.isInfoEnabled() && sqlTrace.shouldLog(elapsed)) {
+            int index = 0;
+            for (String sql : statements.sql()) {
+                sqlLog.info("method={} path={} duration_ms={} statement={}/{} {}", request.getMethod(), request.getRequestURI(),
+                        elapsed.toMillis(), ++index, statements.count(), sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.olixc.todo.logging;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-request SQL capture. Hibernate hands every statement to {@link #inspect} before preparing
+ * it; while a request is being traced on the current thread the SQL text is collected (up to
+ * {@code max-statements}), and at the end of the request {@link #shouldLog} decides whether the
+ * statements are written out: always for slow requests, otherwise for a random sample.
+ * <p>
+ * Sample rate and slow threshold can be changed at runtime through the {@code sqltrace}
+ * actuator endpoint. Work done on other threads (async and streaming responses) is not traced.
+ */
+@Component
+public class SqlTrace implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<Statements> CURRENT = new ThreadLocal<>();
+
+    @Value("${todo.logging.sql-trace.sample-rate:0.01}")
+    private volatile double sampleRate;
+
+    @Value("${todo.logging.sql-trace.slow-threshold:PT0.5S}")
+    private volatile Duration slowThreshold;
+
+    @Value("${todo.logging.sql-trace.max-statements:100}")
+    private int maxStatements;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    // Start collecting statements executed on this thread
+    public void begin() {
+        CURRENT.set(new Statements());
+    }
+
+    // Stop collecting and return what was executed since begin()
+    public Statements end() {
+        Statements statements = CURRENT.get();
+        CURRENT.remove();
+        return statements != null ? statements : new Statements();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Statements statements = CURRENT.get();
+        if (statements != null) {
+            statements.add(sql, maxStatements);
+        }
+        return sql;
+    }
+
+    public boolean shouldLog(Duration elapsed) {
+        return elapsed.compareTo(slowThreshold) >= 0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        if (slowThreshold.isNegative()) {
+            throw new IllegalArgumentException("slowThreshold must not be negative");
+        }
+        this.slowThreshold = slowThreshold;
+    }
+
+    // SQL of one request, in execution order; statements beyond the limit are only counted
+    public static final class Statements {
+
+        private final List<String> sql = new ArrayList<>();
+        private int count;
+
+        private void add(String statement, int limit) {
+            if (count++ < limit) {
+                sql.add(statement);
+            }
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public List<String> sql() {
+            return sql;
+        }
+    }
+}
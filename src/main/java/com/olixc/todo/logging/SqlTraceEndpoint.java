@@ -0,0 +1,37 @@
+package com.olixc.todo.logging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+// GET /actuator/sqltrace shows the SQL sampling settings; POST with
+// {"sampleRate": 0.05, "slowThreshold": "250ms"} changes them until the next restart
+@Component
+@Endpoint(id = "sqltrace")
+public class SqlTraceEndpoint {
+
+    @Autowired
+    private SqlTrace sqlTrace;
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        return Map.of("sampleRate", sqlTrace.getSampleRate(), "slowThreshold", sqlTrace.getSlowThreshold().toString());
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Double sampleRate, @Nullable Duration slowThreshold) {
+        if (sampleRate != null) {
+            sqlTrace.setSampleRate(sampleRate);
+        }
+        if (slowThreshold != null) {
+            sqlTrace.setSlowThreshold(slowThreshold);
+        }
+        return settings();
+    }
+}
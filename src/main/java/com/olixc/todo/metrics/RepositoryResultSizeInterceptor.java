@@ -0,0 +1,73 @@
+package com.olixc.todo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Records the number of rows each repository method returns as the {@code todo.repository.rows}
+ * distribution summary, tagged by repository interface and method name only. Collections, slices
+ * and optionals are counted directly; streams are counted as they are consumed and recorded when
+ * closed. Methods returning scalars or single entities are not recorded.
+ */
+public class RepositoryResultSizeInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "todo.repository.rows";
+
+    private final MeterRegistry registry;
+    private final String repository;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public RepositoryResultSizeInterceptor(MeterRegistry registry, Class<?> repositoryInterface) {
+        this.registry = registry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof Stream<?> stream) {
+            DistributionSummary summary = summary(invocation.getMethod());
+            AtomicLong rows = new AtomicLong();
+            return stream.peek(row -> rows.incrementAndGet()).onClose(() -> summary.record(rows.get()));
+        }
+        long rows = size(result);
+        if (rows >= 0) {
+            summary(invocation.getMethod()).record(rows);
+        }
+        return result;
+    }
+
+    // Rows in a query result, or -1 when the result is not a row set
+    static long size(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    private DistributionSummary summary(Method method) {
+        return summaries.computeIfAbsent(method, key -> DistributionSummary.builder(METRIC_NAME)
+                .description("Rows returned by a repository method")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("method", key.getName())
+                .register(registry));
+    }
+}
@@ -0,0 +1,51 @@
+package com.olixc.todo.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-client rate limiting in front of the servlet API, so one client looping on an expensive
+ * call cannot take all pool connections. The limits are those of the shared {@link RateLimiter};
+ * a client out of tokens gets 429 with Retry-After, and requests beyond {@code max-in-flight}
+ * are shed with 503.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String apiKey = rateLimiter.clientHeader() != null ? request.getHeader(rateLimiter.clientHeader()) : null;
+        RateLimiter.Decision decision = rateLimiter.acquire(request.getMethod(), path, apiKey, request.getRemoteAddr());
+        if (decision.rejected()) {
+            response.setStatus(decision.status().value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(decision.body());
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (decision.inFlight()) {
+                rateLimiter.release();
+            }
+        }
+    }
+}
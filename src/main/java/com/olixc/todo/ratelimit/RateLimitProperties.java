@@ -0,0 +1,46 @@
+package com.olixc.todo.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Settings under {@code todo.rate-limit}. Routes are matched in order and the first match
+ * applies; requests matching no route are not limited.
+ *
+ * @param clientHeader     header identifying the client (an API key); the remote address is used without it
+ * @param apiKeys          keys accepted in the client header; any other value is ignored, so a client cannot
+ *                         escape its limit by sending a new key with every request
+ * @param maxClients       buckets kept per route; beyond it the least valuable are evicted (their clients start over with a full bucket)
+ * @param evictionInterval how often buckets that have refilled completely are removed
+ * @param maxInFlight      requests on limited routes processed at once before shedding with 503; 0 for no limit
+ */
+@ConfigurationProperties("todo.rate-limit")
+public record RateLimitProperties(String clientHeader,
+                                  Set<String> apiKeys,
+                                  long maxClients,
+                                  Duration evictionInterval,
+                                  int maxInFlight,
+                                  List<Route> routes) {
+
+    public RateLimitProperties {
+        apiKeys = apiKeys == null ? Set.of() : Set.copyOf(apiKeys);
+        routes = routes == null ? List.of() : List.copyOf(routes);
+    }
+
+    /**
+     * @param paths         exact paths, or prefixes ending in {@code /*} (one more segment) or {@code /**} (any depth)
+     * @param methods       HTTP methods matched; empty for all
+     * @param ratePerSecond sustained requests per second per client
+     * @param burst         requests a client may send at once after being idle
+     */
+    public record Route(String name, List<String> paths, List<String> methods, double ratePerSecond, int burst) {
+
+        public Route {
+            paths = paths == null ? List.of() : List.copyOf(paths);
+            methods = methods == null ? List.of() : List.copyOf(methods);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.olixc.todo.ratelimit;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// The rate limits of RateLimitFilter for the reactive /api/v2 (see ReactiveApiServer), with
+// the same buckets, so a client cannot double its budget by switching ports
+public class RateLimitWebFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitWebFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String apiKey = rateLimiter.clientHeader() != null ? request.getHeaders().getFirst(rateLimiter.clientHeader()) : null;
+        RateLimiter.Decision decision = rateLimiter.acquire(request.getMethod().name(),
+                request.getPath().pathWithinApplication().value(), apiKey, remoteAddress(request));
+        if (decision.rejected()) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(decision.status());
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            DataBuffer body = response.bufferFactory().wrap(decision.body().getBytes(StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(body));
+        }
+        if (!decision.inFlight()) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).doFinally(signal -> rateLimiter.release());
+    }
+
+    private static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,193 @@
+package com.olixc.todo.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Per-client rate limits of the API, shared by {@link RateLimitFilter} (/api/v1 on Tomcat)
+ * and {@link RateLimitWebFilter} (/api/v2 on Netty), so a client has one budget per route
+ * whichever port it calls. Each route of {@link RateLimitProperties} has its own
+ * {@link TokenBucket} per client (a configured API key, or the remote address). When
+ * {@code max-in-flight} requests are already being processed, further ones are shed.
+ * Rejections are counted in {@code todo.rate-limit.rejected}, tagged with route and reason.
+ */
+public class RateLimiter {
+
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final int maxInFlight;
+    private final List<Route> routes;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.clientHeader = properties.clientHeader();
+        this.apiKeys = properties.apiKeys();
+        this.maxInFlight = properties.maxInFlight();
+        this.routes = properties.routes().stream().map(route -> new Route(route, properties, meterRegistry)).toList();
+    }
+
+    // Header naming the client's API key; null when clients are told apart by address only
+    public String clientHeader() {
+        return clientHeader;
+    }
+
+    /**
+     * Admits or rejects one request. An admitted request on a limited route holds an in-flight
+     * slot, which the caller gives back with {@link #release()} once the request is done.
+     *
+     * @param path          the path within the application
+     * @param apiKey        value of the client header, or null
+     * @param remoteAddress address the request came from
+     */
+    public Decision acquire(String method, String path, String apiKey, String remoteAddress) {
+        Route route = match(method, path);
+        if (route == null) {
+            return Decision.UNLIMITED;
+        }
+        long wait = route.tryAcquire(apiKey != null && apiKeys.contains(apiKey) ? apiKey : remoteAddress, System.nanoTime());
+        if (wait > 0) {
+            route.throttled.increment();
+            return new Decision(HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(wait), "Rate limit exceeded for " + route.name);
+        }
+        if (maxInFlight > 0 && inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            route.shed.increment();
+            return new Decision(HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is overloaded");
+        }
+        return maxInFlight > 0 ? Decision.ADMITTED_IN_FLIGHT : Decision.UNLIMITED;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    // A bucket that has refilled completely behaves exactly like a new one, so removing it
+    // changes nothing; only clients seen recently keep a bucket. (A request racing with the
+    // removal may have its token not counted.) Done here rather than with expireAfterAccess,
+    // which would read the clock on every lookup.
+    @Scheduled(fixedDelayString = "${todo.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (Route route : routes) {
+            route.buckets.asMap().values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private Route match(String method, String path) {
+        for (Route route : routes) {
+            if ((route.methods.isEmpty() || route.methods.contains(method)) && route.matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Outcome of {@link #acquire}: a rejection carries its status, Retry-After and message.
+     *
+     * @param inFlight whether the request holds an in-flight slot to {@link #release()}
+     */
+    public record Decision(HttpStatus status, long retryAfterSeconds, String message, boolean inFlight) {
+
+        static final Decision UNLIMITED = new Decision(null, 0, null, false);
+        static final Decision ADMITTED_IN_FLIGHT = new Decision(null, 0, null, true);
+
+        Decision(HttpStatus status, long retryAfterSeconds, String message) {
+            this(status, retryAfterSeconds, message, false);
+        }
+
+        public boolean rejected() {
+            return status != null;
+        }
+
+        // Same {"error": ...} body as the controllers' error responses
+        public String body() {
+            return "{\"error\":\"" + message + "\"}";
+        }
+    }
+
+    private static final class Route {
+
+        private final String name;
+        private final List<String> exactPaths = new ArrayList<>();
+        // Prefixes ending in '/': of single-segment (/*) and of any-depth (/**) patterns
+        private final List<String> segmentPrefixes = new ArrayList<>();
+        private final List<String> treePrefixes = new ArrayList<>();
+        private final Set<String> methods;
+        private final long interval;
+        private final long tolerance;
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter throttled;
+        private final Counter shed;
+
+        private Route(RateLimitProperties.Route route, RateLimitProperties properties, MeterRegistry meterRegistry) {
+            if (route.ratePerSecond() <= 0 || route.burst() < 1) {
+                throw new IllegalArgumentException("Rate limit route " + route.name() + " needs a positive rate and burst");
+            }
+            this.name = route.name();
+            for (String path : route.paths()) {
+                if (path.endsWith("/**")) {
+                    treePrefixes.add(path.substring(0, path.length() - 2));
+                } else if (path.endsWith("/*")) {
+                    segmentPrefixes.add(path.substring(0, path.length() - 1));
+                } else if (path.contains("*")) {
+                    throw new IllegalArgumentException("Rate limit route " + route.name() + ": unsupported path pattern " + path);
+                } else {
+                    exactPaths.add(path);
+                }
+            }
+            this.methods = route.methods().stream().map(String::toUpperCase).collect(Collectors.toUnmodifiableSet());
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / route.ratePerSecond());
+            this.tolerance = interval * (route.burst() - 1);
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(properties.maxClients())
+                    .build();
+            this.throttled = Counter.builder("todo.rate-limit.rejected").tag("route", name).tag("reason", "rate")
+                    .register(meterRegistry);
+            this.shed = Counter.builder("todo.rate-limit.rejected").tag("route", name).tag("reason", "overload")
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(String path) {
+            for (String exact : exactPaths) {
+                if (path.equals(exact)) {
+                    return true;
+                }
+            }
+            for (String prefix : segmentPrefixes) {
+                if (path.length() > prefix.length() && path.startsWith(prefix) && path.indexOf('/', prefix.length()) < 0) {
+                    return true;
+                }
+            }
+            for (String prefix : treePrefixes) {
+                if (path.startsWith(prefix) || path.length() == prefix.length() - 1 && prefix.startsWith(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long tryAcquire(String client, long now) {
+            TokenBucket bucket = buckets.getIfPresent(client);
+            if (bucket == null) {
+                bucket = buckets.get(client, key -> new TokenBucket(now));
+            }
+            return bucket.tryAcquire(now, interval, tolerance);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.olixc.todo.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of one client on one route, kept as a single timestamp (the generic cell rate
+ * algorithm): the bucket is "full" while the theoretical arrival time of the next request is
+ * not ahead of now, and every request pushes it one emission interval further. Admitting a
+ * request is one compare-and-set, so concurrent requests of a client never block each other.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    // No tokens taken that have not been refilled by now
+    boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param interval  nanos per token (1s / rate)
+     * @param tolerance how far ahead of now the arrival time may run, i.e. (burst - 1) * interval
+     * @return 0 if the request is admitted, otherwise the nanos until a token is available
+     */
+    long tryAcquire(long nowNanos, long interval, long tolerance) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, nowNanos);
+            long wait = start - tolerance - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + interval)) {
+                return 0;
+            }
+        }
+    }
+}
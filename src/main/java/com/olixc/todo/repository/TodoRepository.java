@@ -1,13 +1,27 @@
 package com.olixc.todo.repository;
 
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.dto.TodoStatus;
+import com.olixc.todo.dto.TodoTitle;
+import com.olixc.todo.dto.TodoView;
 import com.olixc.todo.entity.Todo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+// Single-statement update and delete come from TodoWriteRepository
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoWriteRepository {
     
     // Find todos by completion status
     List<Todo> findByCompleted(boolean completed);
@@ -20,4 +34,60 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
 
     // Find pending todos
     List<Todo> findByCompletedFalse();
-}
\ No newline at end of file
+
+    // Keyset page of todos after the given id (primary key range scan)
+    List<Todo> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Keyset page of todos with the given completion status after the given id
+    List<Todo> findByCompletedAndIdGreaterThanOrderByIdAsc(boolean completed, Long id, Limit limit);
+
+    // Keyset page of todos whose title contains text, after the given id
+    List<Todo> findByTitleContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String title, Long id, Limit limit);
+
+    // Stream all todos in id order; rows are pulled from a server-side cursor in
+    // fetch-size chunks and loaded read-only, so no dirty-checking snapshots are kept
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Todo> streamAllByOrderByIdAsc();
+
+    // Id and completion flag of those of the given ids that exist, without loading the rows
+    @Query("select new com.olixc.todo.dto.TodoStatus(t.id, t.completed) from Todo t where t.id in :ids")
+    List<TodoStatus> findStatusesByIds(Collection<Long> ids);
+
+    // Stream just the id and title of every todo, for building the title search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<TodoTitle> streamTitlesByOrderByIdAsc();
+
+    // Total and completed counts in a single aggregate query
+    @Query("select new com.olixc.todo.dto.TodoStats(count(t), sum(case when t.completed = true then 1L else 0L end)) from Todo t")
+    TodoStats countByStatus();
+
+    // Read-only views for the list endpoints; rows are projected straight into
+    // records, so nothing is added to the persistence context
+
+    // All todos as views
+    List<TodoView> findViewsBy();
+
+    // Todos with the given completion status as views
+    List<TodoView> findViewsByCompleted(boolean completed);
+
+    // Todos whose title contains text as views
+    List<TodoView> findViewsByTitleContainingIgnoreCase(String title);
+
+    // Todos with the given ids as views
+    List<TodoView> findViewsByIdIn(Collection<Long> ids);
+
+    // Version of one todo, without loading the entity
+    @Query("select t.version from Todo t where t.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    // Count, highest id and latest update of all todos
+    @Query("select new com.olixc.todo.dto.TodoListVersion(count(t), max(t.id), max(t.updatedAt)) from Todo t")
+    TodoListVersion findListVersion();
+
+    // Count, highest id and latest update of the todos with the given completion status
+    @Query("select new com.olixc.todo.dto.TodoListVersion(count(t), max(t.id), max(t.updatedAt)) from Todo t where t.completed = :completed")
+    TodoListVersion findListVersionByCompleted(boolean completed);
+}
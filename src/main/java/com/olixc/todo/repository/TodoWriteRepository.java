@@ -0,0 +1,19 @@
+package com.olixc.todo.repository;
+
+import com.olixc.todo.dto.TodoUpdate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Single-statement writes that report the row they changed, so no read is needed before
+// or after them. Implemented in TodoWriteRepositoryImpl with vendor-specific SQL.
+public interface TodoWriteRepository {
+
+    // Overwrite the editable fields of one todo and bump its version in a single statement.
+    // Returns the todo as stored and its previous completion flag, or empty when there is no such todo.
+    Optional<TodoUpdate> updateTodo(Long id, String title, String description, boolean completed, LocalDateTime updatedAt);
+
+    // Delete one todo in a single statement. Returns the completion flag it had, or empty
+    // when there is no such todo.
+    Optional<Boolean> deleteTodoById(Long id);
+}
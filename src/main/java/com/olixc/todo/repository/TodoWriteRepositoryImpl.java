@@ -0,0 +1,96 @@
+package com.olixc.todo.repository;
+
+import com.olixc.todo.dto.TodoUpdate;
+import com.olixc.todo.entity.Todo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * PostgreSQL reports the changed row with {@code RETURNING}; the previous completion flag
+ * comes from a {@code FOR UPDATE} read of the row in the same statement, which waits for
+ * concurrent writers and so sees the row as the update will overwrite it. H2 has no
+ * {@code RETURNING}; there the statement is wrapped in {@code SELECT ... FROM OLD TABLE (...)},
+ * which returns the row as it was before the change, and the new version is derived from it.
+ * <p>
+ * Like the {@code @Modifying} queries, both methods flush pending changes first and clear
+ * the persistence context afterwards, so a later read in the transaction sees the row.
+ */
+class TodoWriteRepositoryImpl implements TodoWriteRepository {
+
+    private static final String POSTGRESQL_UPDATE = """
+            WITH previous AS (SELECT id, completed FROM todos WHERE id = ?5 FOR UPDATE)
+            UPDATE todos t SET title = ?1, description = ?2, completed = ?3, updated_at = ?4, version = t.version + 1
+            FROM previous WHERE t.id = previous.id
+            RETURNING t.created_at, t.version, previous.completed""";
+
+    private static final String H2_UPDATE = """
+            SELECT created_at, version + 1 AS version, completed FROM OLD TABLE (
+                UPDATE todos SET title = ?1, description = ?2, completed = ?3, updated_at = ?4, version = version + 1
+                WHERE id = ?5)""";
+
+    private static final String POSTGRESQL_DELETE = "DELETE FROM todos WHERE id = ?1 RETURNING completed";
+
+    private static final String H2_DELETE = "SELECT completed FROM OLD TABLE (DELETE FROM todos WHERE id = ?1)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Boolean postgres;
+
+    @Override
+    public Optional<TodoUpdate> updateTodo(Long id, String title, String description, boolean completed, LocalDateTime updatedAt) {
+        entityManager.flush();
+        List<?> rows = nativeQuery(isPostgres() ? POSTGRESQL_UPDATE : H2_UPDATE)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .addScalar("completed", Boolean.class)
+                .setParameter(1, title)
+                .setParameter(2, description)
+                .setParameter(3, completed)
+                .setParameter(4, updatedAt)
+                .setParameter(5, id)
+                .getResultList();
+        entityManager.clear();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        Todo todo = new Todo(title, description);
+        todo.setId(id);
+        todo.setCompleted(completed);
+        todo.setCreatedAt((LocalDateTime) row[0]);
+        todo.setUpdatedAt(updatedAt);
+        todo.setVersion((Long) row[1]);
+        return Optional.of(new TodoUpdate(todo, (Boolean) row[2]));
+    }
+
+    @Override
+    public Optional<Boolean> deleteTodoById(Long id) {
+        entityManager.flush();
+        List<?> rows = nativeQuery(isPostgres() ? POSTGRESQL_DELETE : H2_DELETE)
+                .addScalar("completed", Boolean.class)
+                .setParameter(1, id)
+                .getResultList();
+        entityManager.clear();
+        return rows.isEmpty() ? Optional.empty() : Optional.of((Boolean) rows.get(0));
+    }
+
+    private NativeQuery<?> nativeQuery(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,34 @@
+package com.olixc.todo.routing;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes across replicas. Every successful write response carries a
+ * {@code Consistency-Token} header with the time the write committed (epoch millis); a client
+ * sends it back on its next reads. A read whose token is younger than the replicas' maximum
+ * lag may not be visible on a replica yet and is served by the primary; older tokens mean
+ * every replica has caught up, so the read is routed normally.
+ */
+public final class ConsistencyToken {
+
+    public static final String HEADER = "Consistency-Token";
+
+    private ConsistencyToken() {
+    }
+
+    // Issued after the service call returned, i.e. after the write's transaction committed
+    public static String issue() {
+        return Long.toString(System.currentTimeMillis());
+    }
+
+    // Malformed tokens are treated as recent: the primary is always consistent
+    public static boolean isRecent(String token, Duration maxLag) {
+        long issuedAt;
+        try {
+            issuedAt = Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        return System.currentTimeMillis() - issuedAt < maxLag.toMillis();
+    }
+}
@@ -0,0 +1,41 @@
+package com.olixc.todo.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Pins the reads of a request carrying a recent consistency token to the primary
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+
+    // Longest replication lag tolerated; must also cover clock skew between instances and
+    // the write-coalescing window, since coalesced updates commit after the response
+    @Value("${todo.read-replicas.max-lag:PT5S}")
+    private Duration maxLag;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = request.getHeader(ConsistencyToken.HEADER);
+        if (token == null || !ConsistencyToken.isRecent(token, maxLag)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+}
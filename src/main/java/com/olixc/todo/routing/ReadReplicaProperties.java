@@ -0,0 +1,18 @@
+package com.olixc.todo.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+// Connection settings of the read replicas (todo.read-replicas.datasources); username and
+// password default to the primary's
+@ConfigurationProperties("todo.read-replicas")
+public record ReadReplicaProperties(List<Replica> datasources) {
+
+    public ReadReplicaProperties {
+        datasources = datasources == null ? List.of() : List.copyOf(datasources);
+    }
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.olixc.todo.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas (round robin) and everything else to the
+ * primary. The key is looked up when a connection is obtained, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager opens its connection before the transaction is marked read-only, and the proxy
+ * defers the real one to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    // Set for a request whose reads must see its client's earlier writes (see ConsistencyTokenFilter)
+    private static final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final List<DataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + (i + 1);
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    public static void pinToPrimary() {
+        pinnedToPrimary.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        pinnedToPrimary.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return pinnedToPrimary.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || isPinnedToPrimary()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    // The replica pools are created here rather than as beans, so they are closed here too;
+    // the primary pool is a bean of its own
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
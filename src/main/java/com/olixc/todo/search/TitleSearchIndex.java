@@ -0,0 +1,205 @@
+package com.olixc.todo.search;
+
+import com.olixc.todo.dto.TodoTitle;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.sharding.TodoShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram inverted index over todo titles. A substring query is answered by
+ * intersecting the posting lists of its trigrams and confirming each candidate against
+ * the indexed title, so the cost follows the number of candidates rather than the table size.
+ * The index is rebuilt at startup and kept current from {@link TodoChangedEvent}s.
+ */
+@Component
+public class TitleSearchIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(TitleSearchIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // id -> lower-cased title, used to drop stale postings and to confirm candidates
+    private Map<Long, String> titles = new HashMap<>();
+    private Map<String, Set<Long>> postings = new HashMap<>();
+
+    // Changes that arrive while a rebuild is running, replayed once it completes
+    private List<TodoChangedEvent> pendingDuringRebuild;
+
+    private volatile boolean ready;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoShards todoShards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Ids of todos whose title contains the query (case-insensitive), in ascending order.
+    // Empty when the index cannot answer: not built yet, or the query is shorter than a trigram.
+    public Optional<List<Long>> search(String query) {
+        if (!ready || query == null || query.length() < GRAM_LENGTH) {
+            return Optional.empty();
+        }
+        String needle = normalize(query);
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(needle)) {
+                Set<Long> posting = postings.get(gram);
+                if (posting == null) {
+                    return Optional.of(List.of());
+                }
+                lists.add(posting);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            List<Long> hits = new ArrayList<>();
+            Set<Long> smallest = lists.get(0);
+            List<Set<Long>> others = lists.subList(1, lists.size());
+            for (Long id : smallest) {
+                if (others.stream().allMatch(posting -> posting.contains(id)) && titles.get(id).contains(needle)) {
+                    hits.add(id);
+                }
+            }
+            hits.sort(null);
+            return Optional.of(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Applied once the write commits, so a rolled-back write never reaches the index;
+    // writes outside a transaction are applied at once
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(event, titles, postings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Build a fresh index from the database and swap it in. Writes that happen while the
+    // table is being read are replayed on top of the new index before it is published.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, String> newTitles = new HashMap<>();
+        Map<String, Set<Long>> newPostings = new HashMap<>();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            // With sharding, the shards are read in parallel into the same maps
+            todoShards.onEachShard(() -> readOnly.execute(status -> {
+                try (Stream<TodoTitle> rows = todoRepository.streamTitlesByOrderByIdAsc()) {
+                    rows.forEach(row -> {
+                        synchronized (newTitles) {
+                            add(row.id(), row.title(), newTitles, newPostings);
+                        }
+                    });
+                }
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(event -> apply(event, newTitles, newPostings));
+            pendingDuringRebuild = null;
+            titles = newTitles;
+            postings = newPostings;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Title search index built: {} todos, {} trigrams", newTitles.size(), newPostings.size());
+    }
+
+    private static void apply(TodoChangedEvent event, Map<Long, String> titles, Map<String, Set<Long>> postings) {
+        remove(event.id(), titles, postings);
+        if (event.type() != TodoChangedEvent.Type.DELETED) {
+            add(event.id(), event.todo().getTitle(), titles, postings);
+        }
+    }
+
+    private static void add(Long id, String title, Map<Long, String> titles, Map<String, Set<Long>> postings) {
+        if (title == null) {
+            return;
+        }
+        String normalized = normalize(title);
+        titles.put(id, normalized);
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static void remove(Long id, Map<Long, String> titles, Map<String, Set<Long>> postings) {
+        String previous = titles.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,102 @@
+package com.olixc.todo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one call per key at a time. The first caller of a key (the leader) runs the
+ * call on its own thread; callers arriving while it runs wait for it and get the same result,
+ * or the same exception. A call's result is never kept once it has completed.
+ * <p>
+ * A waiting caller that is interrupted stops waiting with a {@link CancellationException}
+ * and leaves the call running for the others. If the leader itself is interrupted or
+ * cancelled, the waiting callers do not inherit that: one of them runs the call again.
+ * Calls are counted in {@code todo.read-coalescing.calls}, tagged with the operation and
+ * whether the call was executed or coalesced into one in flight.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("todo.read-coalescing.calls").tag("operation", operation).tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("todo.read-coalescing.calls").tag("operation", operation).tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        while (true) {
+            CompletableFuture<V> own = new CompletableFuture<>();
+            CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+            if (running == null) {
+                executed.increment();
+                return lead(key, own, call);
+            }
+            coalesced.increment();
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a call in flight");
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof LeaderCancelled)) {
+                    throw rethrow(e.getCause());
+                }
+                // The leader gave up; start over, possibly as the new leader
+            }
+        }
+    }
+
+    // Later callers of the key start a new call instead of joining the one in flight,
+    // e.g. because the data it reads has just changed
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    // Removed before completion, so no caller can join a call whose result is already final
+    private V lead(K key, CompletableFuture<V> own, Supplier<V> call) {
+        V value;
+        try {
+            value = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            boolean cancelled = e instanceof CancellationException || Thread.currentThread().isInterrupted();
+            own.completeExceptionally(cancelled ? new LeaderCancelled() : e);
+            throw e;
+        }
+        inFlight.remove(key, own);
+        own.complete(value);
+        return value;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return (RuntimeException) cause;
+    }
+
+    private static final class LeaderCancelled extends RuntimeException {
+
+        private LeaderCancelled() {
+            super(null, null, false, false);
+        }
+    }
+}
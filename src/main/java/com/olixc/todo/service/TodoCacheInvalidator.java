@@ -0,0 +1,81 @@
+package com.olixc.todo.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olixc.todo.config.CacheConfig;
+import com.olixc.todo.event.TodoChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Evicts exactly the changed id from the todo cache on every update and delete.
+// With read replicas, a read shortly after a change may come from a replica that has not
+// applied it yet; changed ids are remembered for todo.read-replicas.max-lag, and reads of
+// them are not cached during that time (see isRecentlyChanged).
+@Component
+public class TodoCacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${todo.read-replicas.enabled:false}")
+    private boolean readReplicas;
+
+    @Value("${todo.read-replicas.max-lag:PT5S}")
+    private Duration maxLag;
+
+    // Ids changed within max-lag; null without read replicas
+    private Map<Long, Boolean> recentlyChanged;
+
+    @PostConstruct
+    void init() {
+        if (readReplicas) {
+            recentlyChanged = Caffeine.newBuilder().expireAfterWrite(maxLag).<Long, Boolean>build().asMap();
+        }
+    }
+
+    // Whether a read of the id may come from a replica that has not caught up with its last change
+    public boolean isRecentlyChanged(Long id) {
+        return recentlyChanged != null && recentlyChanged.containsKey(id);
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        // Created ids can't be cached yet: getTodoById does not cache misses
+        if (event.type() == TodoChangedEvent.Type.CREATED) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.TODO_CACHE);
+        if (cache == null) {
+            return;
+        }
+        cache.evict(event.id());
+        remember(event.id());
+
+        // Inside a transaction a concurrent reader could re-cache the old row before
+        // we commit, so evict once more after the commit; replicas lag from the commit on
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(event.id());
+                    remember(event.id());
+                }
+            });
+        }
+    }
+
+    private void remember(Long id) {
+        if (recentlyChanged != null) {
+            recentlyChanged.put(id, Boolean.TRUE);
+        }
+    }
+}
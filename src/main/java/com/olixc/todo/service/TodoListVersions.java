@@ -0,0 +1,135 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.routing.ReplicaRoutingDataSource;
+import com.olixc.todo.sharding.TodoShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Versions of the todo lists ({@link TodoListVersion}) held in memory, so a conditional list
+ * GET answered with 304 does not aggregate over the table. A list's version is read from
+ * the database when first needed and again after a change to any todo; concurrent reloads
+ * share one query. Changes that bypass this instance (another instance, or the database
+ * directly) are picked up once the version is older than {@code todo.list-version.max-age}.
+ * <p>
+ * With read replicas, a reload may read a replica that has not applied the last change yet.
+ * Versions reloaded within {@code todo.read-replicas.max-lag} of a change are therefore
+ * served only to the request that loaded them, and requests pinned to the primary by a
+ * consistency token always read the version from the primary, so a writer never gets a
+ * list version older than its own write.
+ */
+@Component
+public class TodoListVersions {
+
+    private final Entry all;
+    private final Entry completed;
+    private final Entry pending;
+
+    @Value("${todo.list-version.max-age:PT5S}")
+    private Duration maxAge;
+
+    @Value("${todo.read-replicas.enabled:false}")
+    private boolean readReplicas;
+
+    @Value("${todo.read-replicas.max-lag:PT5S}")
+    private Duration maxLag;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoShards todoShards;
+
+    public TodoListVersions(MeterRegistry meterRegistry) {
+        this.all = new Entry(new SingleFlight<>("list-version", meterRegistry));
+        this.completed = new Entry(new SingleFlight<>("list-version-completed", meterRegistry));
+        this.pending = new Entry(new SingleFlight<>("list-version-pending", meterRegistry));
+    }
+
+    // Version of the full todo list (also used for search results)
+    public TodoListVersion all() {
+        return all.get(() -> TodoListVersion.combine(todoShards.onEachShard(todoRepository::findListVersion)));
+    }
+
+    // Version of the completed or pending todo list
+    public TodoListVersion byStatus(boolean completedTodos) {
+        return (completedTodos ? completed : pending).get(() -> TodoListVersion.combine(
+                todoShards.onEachShard(() -> todoRepository.findListVersionByCompleted(completedTodos))));
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        invalidate();
+        // A reload before the transaction ends reads rows that are not final yet (the old ones,
+        // or in the writer's own transaction ones that may still roll back); invalidate once
+        // more when it has committed or rolled back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate();
+                }
+            });
+        }
+    }
+
+    // An update can move a todo between the completed and pending lists, so all three change
+    private void invalidate() {
+        all.invalidate();
+        completed.invalidate();
+        pending.invalidate();
+    }
+
+    // One list's version. Each invalidation starts a new generation; a version is served only
+    // while it belongs to the current generation, so a reload that raced with a change is
+    // never kept.
+    private final class Entry {
+
+        private final SingleFlight<Long, TodoListVersion> reloads;
+        private volatile long generation;
+        private volatile long changedAt = System.nanoTime();
+        private volatile Loaded loaded;
+
+        private Entry(SingleFlight<Long, TodoListVersion> reloads) {
+            this.reloads = reloads;
+        }
+
+        private TodoListVersion get(Supplier<TodoListVersion> query) {
+            if (ReplicaRoutingDataSource.isPinnedToPrimary()) {
+                return query.get();
+            }
+            long current = generation;
+            Loaded cached = loaded;
+            if (cached != null && cached.generation() == current && System.nanoTime() - cached.loadedAt() < maxAge.toNanos()) {
+                return cached.version();
+            }
+            return reloads.execute(current, () -> {
+                TodoListVersion version = query.get();
+                long now = System.nanoTime();
+                if (!readReplicas || now - changedAt >= maxLag.toNanos()) {
+                    loaded = new Loaded(version, current, now);
+                }
+                return version;
+            });
+        }
+
+        private synchronized void invalidate() {
+            generation++;
+            changedAt = System.nanoTime();
+        }
+    }
+
+    private record Loaded(TodoListVersion version, long generation, long loadedAt) {
+    }
+}
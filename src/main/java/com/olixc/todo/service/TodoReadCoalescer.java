@@ -0,0 +1,91 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.dto.TodoView;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.routing.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Identical reads running at the same time share one database call ({@link SingleFlight}):
+ * a trending todo or search term costs one query per round trip instead of one per request.
+ * <p>
+ * A change to a todo makes later reads start a new call rather than join one that may have
+ * read the old row, so a client still reads its own writes. Reads pinned to the primary
+ * (see {@link com.olixc.todo.routing.ConsistencyTokenFilter}) never share a call with
+ * reads that may go to a replica.
+ */
+@Component
+public class TodoReadCoalescer {
+
+    private final SingleFlight<Key<Long>, Optional<Todo>> todosById;
+    private final SingleFlight<Key<String>, List<TodoView>> searches;
+
+    @Value("${todo.read-coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public TodoReadCoalescer(MeterRegistry meterRegistry) {
+        this.todosById = new SingleFlight<>("todo-by-id", meterRegistry);
+        this.searches = new SingleFlight<>("search", meterRegistry);
+    }
+
+    public Optional<Todo> todoById(Long id, Supplier<Optional<Todo>> load) {
+        return enabled ? todosById.execute(Key.of(id), load) : load.get();
+    }
+
+    // The search runs in a read-only transaction of the caller that executes it; waiting
+    // callers hold no transaction (and so no connection)
+    public List<TodoView> search(String title, Supplier<List<TodoView>> load) {
+        Supplier<List<TodoView>> inTransaction = () -> {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            return readOnly.execute(status -> load.get());
+        };
+        // Title search ignores case, so differently cased queries share a call
+        return enabled ? searches.execute(Key.of(title.toLowerCase(Locale.ROOT)), inTransaction) : inTransaction.get();
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        forget(event.id());
+        // Readers starting before the commit still see the old row; forget once more after it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forget(event.id());
+                }
+            });
+        }
+    }
+
+    // Any change can add a todo to or drop it from search results
+    private void forget(Long id) {
+        todosById.forget(new Key<>(id, false));
+        todosById.forget(new Key<>(id, true));
+        searches.forgetAll();
+    }
+
+    private record Key<T>(T value, boolean pinnedToPrimary) {
+
+        static <T> Key<T> of(T value) {
+            return new Key<>(value, ReplicaRoutingDataSource.isPinnedToPrimary());
+        }
+    }
+}
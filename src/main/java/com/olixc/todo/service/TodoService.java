@@ -1,75 +1,673 @@
 package com.olixc.todo.service;
 
+import com.olixc.todo.config.CacheConfig;
+import com.olixc.todo.dto.BulkItemResult;
+import com.olixc.todo.dto.BulkRequest;
+import com.olixc.todo.dto.BulkResponse;
+import com.olixc.todo.dto.CursorPage;
+import com.olixc.todo.dto.TodoBatch;
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.dto.TodoPatch;
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.dto.TodoStatus;
+import com.olixc.todo.dto.TodoUpdate;
+import com.olixc.todo.dto.TodoView;
 import com.olixc.todo.entity.Todo;
+import com.olixc.todo.entity.TodoIdGenerator;
+import com.olixc.todo.event.TodoChangedEvent;
 import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.routing.ReplicaRoutingDataSource;
+import com.olixc.todo.search.TitleSearchIndex;
+import com.olixc.todo.sharding.TodoShards;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TodoService {
 
+    // Upper bound for the page size a client may request
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Upper bound for the number of items in one bulk request
+    public static final int MAX_BULK_ITEMS = 10_000;
+
+    // Rows written per flush during bulk operations; a multiple of hibernate.jdbc.batch_size
+    static final int BULK_FLUSH_SIZE = 500;
+
+    // Upper bound for the number of ids in one multi-get
+    public static final int MAX_BATCH_IDS = 1_000;
+
+    // Ids bound per IN query, well below driver parameter limits (e.g. Oracle's 1000)
+    static final int IN_QUERY_CHUNK_SIZE = 500;
+
+    // Rows per keyset page when exporting from several shards
+    static final int EXPORT_PAGE_SIZE = 500;
+
+    // Merge order of lists read from several shards, the id order of the single-database queries
+    private static final Comparator<Todo> BY_ID = Comparator.comparing(Todo::getId);
+    private static final Comparator<TodoView> VIEW_BY_ID = Comparator.comparing(TodoView::id);
+
     @Autowired
     private TodoRepository todoRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TitleSearchIndex titleSearchIndex;
+
+    @Autowired
+    private TodoStatsCounter todoStatsCounter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TodoCacheInvalidator todoCacheInvalidator;
+
+    @Autowired
+    private TodoWriteCoalescer todoWriteCoalescer;
+
+    @Autowired
+    private TodoValidator todoValidator;
+
+    @Autowired
+    private TodoReadCoalescer todoReadCoalescer;
+
+    @Autowired
+    private TodoListVersions todoListVersions;
+
+    // With sharding enabled, work on one todo runs on its shard and lists are read from all
+    // shards; otherwise queries run directly
+    @Autowired
+    private TodoShards todoShards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Buffered updates (TodoWriteCoalescer) are written in a transaction of their own. Methods
+    // that flush them therefore start their transaction programmatically, after the flush,
+    // instead of holding a connection while the flush takes a second one. Lists, pages,
+    // searches and exports flush all buffered updates, so they show a client its own writes.
+
     // Get all todos
     public List<Todo> getAllTodos() {
-        return todoRepository.findAll();
+        todoWriteCoalescer.flush();
+        return todoShards.scatter(todoRepository::findAll, BY_ID);
     }
 
-    // Get todo by ID
+    // Get todo by ID; hits are cached, misses are not so new todos show up immediately
+    // While an update of the id is buffered, the cache is bypassed and the update is written
+    // first, so a client always reads its own writes. Concurrent misses of the same id share
+    // one query.
+    // With read replicas, a request pinned to the primary (recent consistency token) bypasses
+    // the cache, and a todo read within max-lag of its last change, possibly from a replica
+    // that has not applied it, is not cached.
+    @Cacheable(cacheNames = CacheConfig.TODO_CACHE, key = "#id",
+            condition = "!@todoWriteCoalescer.isPending(#id) && !T(com.olixc.todo.routing.ReplicaRoutingDataSource).isPinnedToPrimary()",
+            unless = "#result == null || @todoCacheInvalidator.isRecentlyChanged(#id)")
     public Optional<Todo> getTodoById(Long id) {
-        return todoRepository.findById(id);
+        todoWriteCoalescer.flush(id);
+        return todoReadCoalescer.todoById(id, () -> todoShards.route(id, () -> todoRepository.findById(id)));
     }
 
-    // Create new todo
+    // Get many todos by id in one call. Cached todos are taken from the cache; only the misses
+    // are read, IN_QUERY_CHUNK_SIZE ids per query, and put into the cache like getTodoById does
+    // (under the same rules for read replicas).
+    // Not transactional, so buffered updates of the ids are written first, in their own transaction.
+    public TodoBatch getTodosByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids can be fetched at once");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("ids must not contain null");
+        }
+        List<Long> requested = List.copyOf(new LinkedHashSet<>(ids));
+        todoWriteCoalescer.flush(requested);
+
+        Cache cache = ReplicaRoutingDataSource.isPinnedToPrimary() ? null : cacheManager.getCache(CacheConfig.TODO_CACHE);
+        Map<Long, Todo> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : requested) {
+            Todo cached = cache != null ? cache.get(id, Todo.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += IN_QUERY_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + IN_QUERY_CHUNK_SIZE, misses.size()));
+            for (Todo todo : todoShards.byShard(chunk, todoRepository::findAllById)) {
+                found.put(todo.getId(), todo);
+                if (cache != null && !todoCacheInvalidator.isRecentlyChanged(todo.getId())) {
+                    cache.put(todo.getId(), todo);
+                }
+            }
+        }
+
+        List<Todo> todos = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Todo todo = found.get(id);
+            if (todo != null) {
+                todos.add(todo);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new TodoBatch(todos, missing);
+    }
+
+    // Create new todo; the id is assigned by the server
     public Todo createTodo(Todo todo) {
-        return todoRepository.save(todo);
+        todoValidator.validate(todo);
+        Long id = todoShards.newId();
+        Todo savedTodo = todoShards.route(id, () -> TodoIdGenerator.withId(id, () -> todoRepository.save(todo)));
+        eventPublisher.publishEvent(TodoChangedEvent.created(savedTodo));
+        return savedTodo;
     }
 
-    // Update existing todo
+    // Update existing todo with a single statement, which reports the row as stored (its
+    // creation time and new version) and whether it was completed before, so the row is
+    // neither read first nor read back.
+    // When write coalescing is enabled the update is buffered instead and written with
+    // others at the end of the window.
     public Todo updateTodo(Long id, Todo todoDetails) {
-        Optional<Todo> optionalTodo = todoRepository.findById(id);
+        todoValidator.validate(todoDetails);
+        return todoShards.route(id, () -> {
+            if (todoWriteCoalescer.isEnabled()) {
+                // In a read-write transaction, so the buffer starts from the row on the primary
+                Optional<Todo> queued = inTransaction(false, () -> todoWriteCoalescer.offer(id, todoDetails));
+                if (queued.isPresent()) {
+                    return queued.get();
+                }
+            }
+            todoWriteCoalescer.flush(id);
+            return inTransaction(false, () -> writeUpdate(id, todoDetails));
+        });
+    }
 
-        if (optionalTodo.isPresent()) {
-            Todo todo = optionalTodo.get();
-            todo.setTitle(todoDetails.getTitle());
-            todo.setDescription(todoDetails.getDescription());
-            todo.setCompleted(todoDetails.isCompleted());
-            return todoRepository.save(todo);
+    private Todo writeUpdate(Long id, Todo todoDetails) {
+        Optional<TodoUpdate> updated = todoRepository.updateTodo(id, todoDetails.getTitle(), todoDetails.getDescription(),
+                todoDetails.isCompleted(), LocalDateTime.now());
+        if (updated.isEmpty()) {
+            return null; // Todo not found
         }
+        Todo savedTodo = updated.get().todo();
+        eventPublisher.publishEvent(TodoChangedEvent.updated(savedTodo, updated.get().previousCompleted()));
+        return savedTodo;
+    }
 
-        return null; // Todo not found
+    // Apply a merge patch to a todo. Only the patched columns are written, and the UPDATE
+    // checks the version, so a concurrent change fails with OptimisticLockingFailureException
+    // rather than being overwritten. expectedVersion, when given, must match the stored one.
+    public Todo patchTodo(Long id, TodoPatch patch, Long expectedVersion) {
+        return todoShards.route(id, () -> {
+            todoWriteCoalescer.flush(id);
+            return inTransaction(false, () -> writePatch(id, patch, expectedVersion));
+        });
+    }
+
+    private Todo writePatch(Long id, TodoPatch patch, Long expectedVersion) {
+        Optional<Todo> optionalTodo = todoRepository.findById(id);
+        if (optionalTodo.isEmpty()) {
+            return null; // Todo not found
+        }
+        Todo todo = optionalTodo.get();
+        if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Todo.class, id);
+        }
+
+        boolean wasCompleted = todo.isCompleted();
+        if (patch.title() != null) {
+            todo.setTitle(patch.title());
+        }
+        if (patch.hasDescription()) {
+            todo.setDescription(patch.description());
+        }
+        if (patch.completed() != null) {
+            todo.setCompleted(patch.completed());
+        }
+        todoValidator.validate(todo);
+        // Flush now so the new version is assigned and conflicts surface inside this call
+        entityManager.flush();
+        eventPublisher.publishEvent(TodoChangedEvent.updated(todo, wasCompleted));
+        return todo;
     }
 
-    // Delete todo
+    // Delete todo with a single DELETE statement, which reports whether it was completed.
+    // A buffered update of the todo is dropped, not flushed.
+    @Transactional
     public boolean deleteTodo(Long id) {
-        if (todoRepository.existsById(id)) {
-            todoRepository.deleteById(id);
-            return true;
+        return todoShards.route(id, () -> writeDelete(id));
+    }
+
+    private boolean writeDelete(Long id) {
+        todoWriteCoalescer.discard(id);
+        Optional<Boolean> wasCompleted = todoRepository.deleteTodoById(id);
+        if (wasCompleted.isEmpty()) {
+            return false; // Todo not found
         }
-        return false; // Todo not found
+        eventPublisher.publishEvent(TodoChangedEvent.deleted(id, wasCompleted.get()));
+        return true;
     }
 
     // Get todos by completion status
     public List<Todo> getTodosByStatus(boolean completed) {
-        return todoRepository.findByCompleted(completed);
+        todoWriteCoalescer.flush();
+        return todoShards.scatter(() -> todoRepository.findByCompleted(completed), BY_ID);
     }
 
-    // Search todos by title
+    // Search todos by title; answered from the trigram index when it can, otherwise by the database
     public List<Todo> searchTodosByTitle(String title) {
-        return todoRepository.findByTitleContainingIgnoreCase(title);
+        todoWriteCoalescer.flush();
+        Optional<List<Long>> hits = titleSearchIndex.search(title);
+        if (hits.isPresent()) {
+            return loadSearchHits(hits.get(), title);
+        }
+        return todoShards.scatter(() -> todoRepository.findByTitleContainingIgnoreCase(title), BY_ID);
     }
 
     // Get completed todos
     public List<Todo> getCompletedTodos() {
-        return todoRepository.findByCompletedTrue();
+        todoWriteCoalescer.flush();
+        return todoShards.scatter(todoRepository::findByCompletedTrue, BY_ID);
     }
 
     // Get pending todos
     public List<Todo> getPendingTodos() {
-        return todoRepository.findByCompletedFalse();
+        todoWriteCoalescer.flush();
+        return todoShards.scatter(todoRepository::findByCompletedFalse, BY_ID);
+    }
+
+    // Read-only views for the list endpoints. Rows are projected into records inside a
+    // read-only transaction, so no entities or dirty-checking snapshots are kept and the
+    // connection is returned before the response is serialized.
+
+    // Get all todos as views
+    public List<TodoView> getAllTodoViews() {
+        todoWriteCoalescer.flush();
+        return inTransaction(true, () -> todoShards.scatter(todoRepository::findViewsBy, VIEW_BY_ID));
+    }
+
+    // Get completed todos as views
+    public List<TodoView> getCompletedTodoViews() {
+        todoWriteCoalescer.flush();
+        return inTransaction(true, () -> todoShards.scatter(() -> todoRepository.findViewsByCompleted(true), VIEW_BY_ID));
+    }
+
+    // Get pending todos as views
+    public List<TodoView> getPendingTodoViews() {
+        todoWriteCoalescer.flush();
+        return inTransaction(true, () -> todoShards.scatter(() -> todoRepository.findViewsByCompleted(false), VIEW_BY_ID));
+    }
+
+    // Search todos by title as views; answered from the trigram index when it can.
+    // Concurrent identical searches share one read-only transaction (TodoReadCoalescer).
+    public List<TodoView> searchTodoViewsByTitle(String title) {
+        todoWriteCoalescer.flush();
+        return todoReadCoalescer.search(title, () -> loadSearchViews(title));
+    }
+
+    private List<TodoView> loadSearchViews(String title) {
+        Optional<List<Long>> hits = titleSearchIndex.search(title);
+        if (hits.isPresent()) {
+            if (hits.get().isEmpty()) {
+                return List.of();
+            }
+            String needle = title.toLowerCase(Locale.ROOT);
+            return todoShards.byShard(hits.get(), todoRepository::findViewsByIdIn).stream()
+                    .filter(view -> view.title() != null && view.title().toLowerCase(Locale.ROOT).contains(needle))
+                    .sorted(Comparator.comparing(TodoView::id))
+                    .toList();
+        }
+        return todoShards.scatter(() -> todoRepository.findViewsByTitleContainingIgnoreCase(title), VIEW_BY_ID);
+    }
+
+    // Version of a todo, for conditional requests; reads one column only
+    public Optional<Long> getTodoVersion(Long id) {
+        todoWriteCoalescer.flush(id);
+        return todoShards.route(id, () -> todoRepository.findVersionById(id));
+    }
+
+    // Version of the full todo list (also used for search results)
+    public TodoListVersion getListVersion() {
+        todoWriteCoalescer.flush();
+        return todoListVersions.all();
+    }
+
+    // Version of the completed or pending todo list
+    public TodoListVersion getListVersion(boolean completed) {
+        todoWriteCoalescer.flush();
+        return todoListVersions.byStatus(completed);
+    }
+
+    // Get todo counts by status from the in-memory counters; no database access
+    public TodoStats getStats() {
+        return todoStatsCounter.current();
+    }
+
+    // Get a page of todos ordered by id
+    public CursorPage<Todo> getTodosPage(String cursor, int limit) {
+        return page(cursor, limit, onAllShards(todoRepository::findByIdGreaterThanOrderByIdAsc));
+    }
+
+    // Get a page of completed todos ordered by id
+    public CursorPage<Todo> getCompletedTodosPage(String cursor, int limit) {
+        return page(cursor, limit, onAllShards(
+                (afterId, pageLimit) -> todoRepository.findByCompletedAndIdGreaterThanOrderByIdAsc(true, afterId, pageLimit)));
+    }
+
+    // Get a page of pending todos ordered by id
+    public CursorPage<Todo> getPendingTodosPage(String cursor, int limit) {
+        return page(cursor, limit, onAllShards(
+                (afterId, pageLimit) -> todoRepository.findByCompletedAndIdGreaterThanOrderByIdAsc(false, afterId, pageLimit)));
+    }
+
+    // Search todos by title, one page at a time
+    public CursorPage<Todo> searchTodosByTitlePage(String title, String cursor, int limit) {
+        Optional<List<Long>> hits = titleSearchIndex.search(title);
+        if (hits.isPresent()) {
+            return page(cursor, limit, (afterId, pageLimit) -> loadSearchHits(hits.get().stream()
+                    .filter(id -> id > afterId)
+                    .limit(pageLimit.max())
+                    .toList(), title));
+        }
+        return page(cursor, limit, onAllShards(
+                (afterId, pageLimit) -> todoRepository.findByTitleContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(title, afterId, pageLimit)));
+    }
+
+    // Load index hits by primary key, in id order. The title is checked again so a
+    // hit the database no longer agrees with (e.g. a rolled-back write) is dropped.
+    private List<Todo> loadSearchHits(List<Long> ids, String title) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String needle = title.toLowerCase(Locale.ROOT);
+        return todoShards.byShard(ids, todoRepository::findAllById).stream()
+                .filter(todo -> todo.getTitle() != null && todo.getTitle().toLowerCase(Locale.ROOT).contains(needle))
+                .sorted(Comparator.comparing(Todo::getId))
+                .toList();
+    }
+
+    // Apply a bulk request in one transaction: creates, then updates, then deletes.
+    // Writes are flushed in chunks so Hibernate sends them as JDBC batches, and the
+    // persistence context is cleared after each chunk to keep memory flat.
+    // With sharding, where one transaction cannot span the shards, each shard applies its
+    // items in a transaction of its own (see bulkApplyByShard).
+    public BulkResponse bulkApply(BulkRequest request) {
+        if (request.size() > MAX_BULK_ITEMS) {
+            throw new IllegalArgumentException("A bulk request may contain at most " + MAX_BULK_ITEMS + " items");
+        }
+        // Buffered single updates happened before this request and must not overwrite it
+        todoWriteCoalescer.flush();
+        if (todoShards.isEnabled()) {
+            return bulkApplyByShard(request);
+        }
+        return inTransaction(false, () -> new BulkResponse(
+                bulkCreate(request.createOrEmpty(), null),
+                bulkUpdate(request.updateOrEmpty()),
+                bulkDelete(request.deleteOrEmpty())));
+    }
+
+    // The items are grouped by the shard of their id (new ones are given theirs here), and
+    // every shard applies its creates, updates and deletes in one transaction, in parallel.
+    // A shard that fails rolls back only its own items; the others stay applied.
+    private BulkResponse bulkApplyByShard(BulkRequest request) {
+        List<BulkItem> items = new ArrayList<>(request.size());
+        List<Todo> creates = request.createOrEmpty();
+        for (int i = 0; i < creates.size(); i++) {
+            // Invalid creates are only reported, so they take no id
+            Long id = todoValidator.problems(creates.get(i)) == null ? todoShards.newId() : null;
+            items.add(new BulkItem(BulkItem.Kind.CREATE, i, id));
+        }
+        List<Todo> updates = request.updateOrEmpty();
+        for (int i = 0; i < updates.size(); i++) {
+            items.add(new BulkItem(BulkItem.Kind.UPDATE, i, updates.get(i) != null ? updates.get(i).getId() : null));
+        }
+        List<Long> deletes = request.deleteOrEmpty();
+        for (int i = 0; i < deletes.size(); i++) {
+            items.add(new BulkItem(BulkItem.Kind.DELETE, i, deletes.get(i)));
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<BulkResponse> shards = todoShards.byShard(items, BulkItem::id,
+                shardItems -> List.of(transaction.<BulkResponse>execute(status -> bulkApplyItems(request, shardItems))));
+        return new BulkResponse(
+                inRequestOrder(shards, BulkResponse::created),
+                inRequestOrder(shards, BulkResponse::updated),
+                inRequestOrder(shards, BulkResponse::deleted));
+    }
+
+    // Apply the given items of the request; results are indexed by the items' request positions
+    private BulkResponse bulkApplyItems(BulkRequest request, List<BulkItem> items) {
+        List<BulkItem> creates = items.stream().filter(item -> item.kind() == BulkItem.Kind.CREATE).toList();
+        List<BulkItem> updates = items.stream().filter(item -> item.kind() == BulkItem.Kind.UPDATE).toList();
+        List<BulkItem> deletes = items.stream().filter(item -> item.kind() == BulkItem.Kind.DELETE).toList();
+        return new BulkResponse(
+                reindex(bulkCreate(creates.stream().map(item -> request.createOrEmpty().get(item.index())).toList(),
+                        creates.stream().map(BulkItem::id).toList()), creates),
+                reindex(bulkUpdate(updates.stream().map(item -> request.updateOrEmpty().get(item.index())).toList()), updates),
+                reindex(bulkDelete(deletes.stream().map(BulkItem::id).toList()), deletes));
+    }
+
+    // The bulk methods report one result per item, in order
+    private static List<BulkItemResult> reindex(List<BulkItemResult> results, List<BulkItem> items) {
+        List<BulkItemResult> reindexed = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BulkItemResult result = results.get(i);
+            reindexed.add(new BulkItemResult(items.get(i).index(), result.id(), result.status(), result.error()));
+        }
+        return reindexed;
+    }
+
+    private static List<BulkItemResult> inRequestOrder(List<BulkResponse> shards, Function<BulkResponse, List<BulkItemResult>> results) {
+        return shards.stream()
+                .flatMap(shard -> results.apply(shard).stream())
+                .sorted(Comparator.comparingInt(BulkItemResult::index))
+                .toList();
+    }
+
+    // Ids are those chosen for the todos with sharding (null where invalid), or null for todos_seq ones
+    private List<BulkItemResult> bulkCreate(List<Todo> todos, List<Long> ids) {
+        List<BulkItemResult> results = new ArrayList<>(todos.size());
+        int pending = 0;
+        for (int i = 0; i < todos.size(); i++) {
+            Todo details = todos.get(i);
+            String problems = todoValidator.problems(details);
+            if (problems != null) {
+                results.add(BulkItemResult.invalid(i, null, problems));
+                continue;
+            }
+            Todo todo = new Todo(details.getTitle(), details.getDescription());
+            todo.setCompleted(details.isCompleted());
+            TodoIdGenerator.withId(ids != null ? ids.get(i) : null, () -> {
+                entityManager.persist(todo);
+                return todo;
+            });
+            eventPublisher.publishEvent(TodoChangedEvent.created(todo));
+            results.add(BulkItemResult.of(i, todo.getId(), BulkItemResult.Status.CREATED));
+            if (++pending == BULK_FLUSH_SIZE) {
+                flushAndClear();
+                pending = 0;
+            }
+        }
+        flushAndClear();
+        return results;
+    }
+
+    private List<BulkItemResult> bulkUpdate(List<Todo> todos) {
+        List<BulkItemResult> results = new ArrayList<>(todos.size());
+        for (int from = 0; from < todos.size(); from += BULK_FLUSH_SIZE) {
+            List<Todo> chunk = todos.subList(from, Math.min(from + BULK_FLUSH_SIZE, todos.size()));
+            Set<Long> ids = chunk.stream()
+                    .filter(details -> details != null && details.getId() != null)
+                    .map(Todo::getId)
+                    .collect(Collectors.toSet());
+            Map<Long, Todo> existing = todoRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Todo::getId, Function.identity()));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = from + i;
+                Todo details = chunk.get(i);
+                String problems = todoValidator.problems(details);
+                if (details == null || details.getId() == null) {
+                    results.add(BulkItemResult.invalid(index, null, "id is required"));
+                } else if (problems != null) {
+                    results.add(BulkItemResult.invalid(index, details.getId(), problems));
+                } else if (!existing.containsKey(details.getId())) {
+                    results.add(BulkItemResult.of(index, details.getId(), BulkItemResult.Status.NOT_FOUND));
+                } else {
+                    Todo todo = existing.get(details.getId());
+                    boolean wasCompleted = todo.isCompleted();
+                    todo.setTitle(details.getTitle());
+                    todo.setDescription(details.getDescription());
+                    todo.setCompleted(details.isCompleted());
+                    eventPublisher.publishEvent(TodoChangedEvent.updated(todo, wasCompleted));
+                    results.add(BulkItemResult.of(index, todo.getId(), BulkItemResult.Status.UPDATED));
+                }
+            }
+            flushAndClear();
+        }
+        return results;
+    }
+
+    private List<BulkItemResult> bulkDelete(List<Long> ids) {
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BULK_FLUSH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_FLUSH_SIZE, ids.size()));
+            Set<Long> requested = chunk.stream().filter(id -> id != null).collect(Collectors.toSet());
+            Map<Long, Boolean> existing = requested.isEmpty() ? Map.of() : todoRepository.findStatusesByIds(requested).stream()
+                    .collect(Collectors.toMap(TodoStatus::id, TodoStatus::completed));
+            if (!existing.isEmpty()) {
+                todoRepository.deleteAllByIdInBatch(existing.keySet());
+            }
+
+            Set<Long> deleted = new HashSet<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i);
+                if (id == null) {
+                    results.add(BulkItemResult.invalid(from + i, null, "id is required"));
+                } else if (existing.containsKey(id) && deleted.add(id)) {
+                    eventPublisher.publishEvent(TodoChangedEvent.deleted(id, existing.get(id)));
+                    results.add(BulkItemResult.of(from + i, id, BulkItemResult.Status.DELETED));
+                } else {
+                    results.add(BulkItemResult.of(from + i, id, BulkItemResult.Status.NOT_FOUND));
+                }
+            }
+        }
+        return results;
+    }
+
+    // One item of a bulk request routed to a shard: its list, position there and id
+    private record BulkItem(Kind kind, int index, Long id) {
+
+        enum Kind {
+            CREATE, UPDATE, DELETE
+        }
+    }
+
+    private <T> T inTransaction(boolean readOnly, Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> work.get());
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Hand every todo to the consumer in id order. Each entity is detached once
+    // written so the persistence context stays empty however large the table is.
+    public long exportTodos(Consumer<Todo> consumer) {
+        todoWriteCoalescer.flush();
+        if (todoShards.isEnabled()) {
+            return exportTodosByPage(consumer);
+        }
+        return inTransaction(true, () -> exportTodosByCursor(consumer));
+    }
+
+    private long exportTodosByCursor(Consumer<Todo> consumer) {
+        long exported = 0;
+        try (Stream<Todo> todos = todoRepository.streamAllByOrderByIdAsc()) {
+            for (Todo todo : (Iterable<Todo>) todos::iterator) {
+                consumer.accept(todo);
+                entityManager.detach(todo);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    // With sharding, one cursor per shard would have to stay open at once; keyset pages
+    // merged from all shards give the same id order with one page in memory
+    private long exportTodosByPage(Consumer<Todo> consumer) {
+        BiFunction<Long, Limit, List<Todo>> query = onAllShards(todoRepository::findByIdGreaterThanOrderByIdAsc);
+        long exported = 0;
+        long afterId = 0;
+        while (true) {
+            List<Todo> todos = query.apply(afterId, Limit.of(EXPORT_PAGE_SIZE));
+            todos.forEach(consumer);
+            exported += todos.size();
+            if (todos.size() < EXPORT_PAGE_SIZE) {
+                return exported;
+            }
+            afterId = todos.get(todos.size() - 1).getId();
+        }
+    }
+
+    // A keyset page query run on every shard. Each shard returns up to the limit in id
+    // order, so the first rows of the merge are the page.
+    private BiFunction<Long, Limit, List<Todo>> onAllShards(BiFunction<Long, Limit, List<Todo>> query) {
+        return (afterId, limit) -> {
+            List<Todo> rows = todoShards.scatter(() -> query.apply(afterId, limit), BY_ID);
+            return rows.size() > limit.max() ? rows.subList(0, limit.max()) : rows;
+        };
+    }
+
+    // Fetch one row more than requested so we know whether a next page exists
+    private CursorPage<Todo> page(String cursor, int limit, BiFunction<Long, Limit, List<Todo>> query) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        todoWriteCoalescer.flush();
+        List<Todo> rows = query.apply(CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Todo::getId);
     }
 }
\ No newline at end of file
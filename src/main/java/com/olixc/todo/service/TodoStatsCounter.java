@@ -0,0 +1,105 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.sharding.TodoShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Total and completed todo counts held in memory. Writes adjust striped {@link LongAdder}s
+ * from {@link TodoChangedEvent}s, so reading the stats is O(1) and never touches the database.
+ * The counters are seeded from one aggregate query at startup and reconciled periodically.
+ * The write paths report the row's previous status; an event without it marks the counters
+ * dirty for an earlier reconcile.
+ */
+@Component
+public class TodoStatsCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoStatsCounter.class);
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoShards todoShards;
+
+    public TodoStats current() {
+        long totalCount = total.sum();
+        long completedCount = completed.sum();
+        return new TodoStats(totalCount, completedCount, totalCount - completedCount);
+    }
+
+    // Counted once the write commits, so a rolled-back write never moves the counters;
+    // writes outside a transaction are counted at once
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> {
+                total.increment();
+                if (event.todo().isCompleted()) {
+                    completed.increment();
+                }
+            }
+            case UPDATED -> {
+                if (event.previousCompleted() == null) {
+                    dirty.set(true);
+                } else if (event.previousCompleted() != event.todo().isCompleted()) {
+                    completed.add(event.todo().isCompleted() ? 1 : -1);
+                }
+            }
+            case DELETED -> {
+                total.decrement();
+                if (event.previousCompleted() == null) {
+                    dirty.set(true);
+                } else if (event.previousCompleted()) {
+                    completed.decrement();
+                }
+            }
+        }
+    }
+
+    // Correct the counters to the database's numbers. The counters are read before the
+    // aggregate query and only the difference to its result is added, so changes counted
+    // while the query runs (committed after it read the table) are kept. A change that
+    // commits just before the query but is counted just after the counters were read is
+    // counted twice until the next reconcile.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${todo.stats.reconcile-interval:PT5M}",
+            fixedDelayString = "${todo.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        dirty.set(false);
+        long totalBefore = total.sum();
+        long completedBefore = completed.sum();
+        TodoStats actual = TodoStats.sum(todoShards.onEachShard(todoRepository::countByStatus));
+        long totalDrift = actual.total() - totalBefore;
+        long completedDrift = actual.completed() - completedBefore;
+        total.add(totalDrift);
+        completed.add(completedDrift);
+        if (totalDrift != 0 || completedDrift != 0) {
+            log.debug("Reconciled todo counters: total drift {}, completed drift {}", totalDrift, completedDrift);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${todo.stats.dirty-reconcile-interval:PT10S}")
+    public void reconcileIfDirty() {
+        if (dirty.get()) {
+            reconcile();
+        }
+    }
+}
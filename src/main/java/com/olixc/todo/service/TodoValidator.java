@@ -0,0 +1,43 @@
+package com.olixc.todo.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+// Checks todo details against their Bean Validation constraints (the limits of the todos
+// columns, see Todo) before they are written, so a bad value is answered with 400 instead
+// of failing a statement. Every write path checks, including buffered updates.
+@Component
+public class TodoValidator {
+
+    private final Validator validator;
+
+    public TodoValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    // The violated constraints, e.g. "title must not be blank"; null when the todo is valid
+    public String problems(Object todo) {
+        if (todo == null) {
+            return "todo is required";
+        }
+        String problems = validator.validate(todo).stream()
+                .map(TodoValidator::describe)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return problems.isEmpty() ? null : problems;
+    }
+
+    public void validate(Object todo) {
+        String problems = problems(todo);
+        if (problems != null) {
+            throw new IllegalArgumentException(problems);
+        }
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + " " + violation.getMessage();
+    }
+}
@@ -0,0 +1,296 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.sharding.TodoShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind buffer for full updates of the same todo in quick succession.
+ * Updates are merged per id (last writer wins) and written once per window, all ids in
+ * one transaction, so a todo toggled many times a second costs one UPDATE per window.
+ * <p>
+ * Reads of a buffered id flush it first, and list, page, search and export reads flush all
+ * buffered ids, which gives read-your-writes. Flushes run in a transaction of their own,
+ * so callers flush before starting theirs (see TodoService). The buffer holds at
+ * most {@code max-pending} ids; beyond that, and when disabled, updates are not accepted
+ * and the caller writes directly. Updates are validated like direct writes before they are
+ * accepted. Pending updates are flushed on shutdown, but an update that was acknowledged is
+ * lost if the process dies before its window closes, or if it still cannot be written after
+ * {@code max-attempts} flushes (logged and counted as {@code todo.write-coalescing.dropped}).
+ */
+@Component
+public class TodoWriteCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoWriteCoalescer.class);
+
+    private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    // Serializes flushes so two writes of the same id always commit in order
+    private final Lock flushLock = new ReentrantLock();
+
+    private volatile boolean closed;
+
+    @Value("${todo.write-coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${todo.write-coalescing.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${todo.write-coalescing.max-attempts:5}")
+    private int maxAttempts;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoShards todoShards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TodoValidator todoValidator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public boolean isEnabled() {
+        return enabled && !closed;
+    }
+
+    public boolean isPending(Long id) {
+        return pending.containsKey(id);
+    }
+
+    // Buffer a full update of the todo. Returns the todo as it will read once flushed, or
+    // empty when the update was not accepted (disabled, buffer full, invalid or unknown id)
+    // and must be written directly.
+    public Optional<Todo> offer(Long id, Todo details) {
+        if (!isEnabled() || todoValidator.problems(details) != null) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        while (true) {
+            PendingUpdate entry = pending.get(id);
+            if (entry == null) {
+                if (pending.size() >= maxPending) {
+                    return Optional.empty();
+                }
+                Optional<Todo> base = todoRepository.findById(id);
+                if (base.isEmpty()) {
+                    return Optional.empty();
+                }
+                entry = pending.computeIfAbsent(id, key -> new PendingUpdate(base.get()));
+            }
+            synchronized (entry) {
+                // Drained by a flush since we looked it up; start a new entry
+                if (entry.drained) {
+                    continue;
+                }
+                entry.title = details.getTitle();
+                entry.description = details.getDescription();
+                entry.completed = details.isCompleted();
+                entry.updatedAt = now;
+                return Optional.of(entry.toTodo());
+            }
+        }
+    }
+
+    // Drop a buffered update, e.g. because the todo is being deleted
+    public void discard(Long id) {
+        PendingUpdate entry = pending.remove(id);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.drained = true;
+            }
+        }
+    }
+
+    // Write the buffered update of one todo now, if there is one
+    public void flush(Long id) {
+        if (isPending(id)) {
+            flush(List.of(id));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${todo.write-coalescing.window:PT0.1S}")
+    public void flush() {
+        if (!pending.isEmpty()) {
+            flush(List.copyOf(pending.keySet()));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    // Write the buffered updates of these todos now; ids without one are skipped
+    public void flush(Collection<Long> ids) {
+        flushLock.lock();
+        try {
+            List<PendingUpdate> batch = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                PendingUpdate entry = pending.remove(id);
+                if (entry != null) {
+                    synchronized (entry) {
+                        entry.drained = true;
+                    }
+                    batch.add(entry);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                if (batch.size() == 1) {
+                    retryOrDrop(batch.get(0), e);
+                } else {
+                    log.warn("Failed to flush {} coalesced todo updates; writing them one by one", batch.size(), e);
+                    writeEach(batch);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Isolates the updates the database rejects, so they do not hold back the rest. Any other
+    // failure (e.g. the database is unreachable) would fail each write the same way; the rest
+    // are then kept for the next window without trying them.
+    private void writeEach(List<PendingUpdate> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                write(List.of(batch.get(i)));
+            } catch (RuntimeException e) {
+                retryOrDrop(batch.get(i), e);
+                if (!(e instanceof DataIntegrityViolationException)) {
+                    batch.subList(i + 1, batch.size()).forEach(entry -> retryOrDrop(entry, e));
+                    return;
+                }
+            }
+        }
+    }
+
+    // Keep the update for the next window unless a newer one has replaced it, at most
+    // max-attempts times
+    private void retryOrDrop(PendingUpdate entry, RuntimeException failure) {
+        PendingUpdate retry = entry.copy();
+        retry.attempts++;
+        if (retry.attempts >= maxAttempts) {
+            meterRegistry.counter("todo.write-coalescing.dropped").increment();
+            log.error("Dropping coalesced update of todo {} after {} failed attempts", entry.id, retry.attempts, failure);
+        } else if (pending.putIfAbsent(entry.id, retry) == null) {
+            log.warn("Failed to flush coalesced update of todo {} (attempt {}); will retry", entry.id, retry.attempts, failure);
+        }
+    }
+
+    // One transaction for the whole batch (one per shard with sharding): a single SELECT,
+    // then UPDATEs sent as JDBC batches. If one shard fails, the batch is retried on all of
+    // them; rewriting the same full update is harmless. The transaction is always a new one:
+    // a flush triggered by a read must not join, or mark rollback-only, the reader's.
+    private void write(List<PendingUpdate> batch) {
+        Map<Long, PendingUpdate> entries = batch.stream().collect(Collectors.toMap(entry -> entry.id, Function.identity()));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        todoShards.byShard(batch.stream().map(entry -> entry.id).toList(), ids -> {
+            transaction.executeWithoutResult(status -> {
+                Map<Long, Todo> todos = todoRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Todo::getId, Function.identity()));
+                for (Long id : ids) {
+                    Todo todo = todos.get(id);
+                    if (todo == null) {
+                        continue; // deleted in the meantime
+                    }
+                    PendingUpdate entry = entries.get(id);
+                    boolean wasCompleted = todo.isCompleted();
+                    todo.setTitle(entry.title);
+                    todo.setDescription(entry.description);
+                    todo.setCompleted(entry.completed);
+                    eventPublisher.publishEvent(TodoChangedEvent.updated(todo, wasCompleted));
+                }
+            });
+            return List.of();
+        });
+        log.debug("Flushed {} coalesced todo updates", batch.size());
+    }
+
+    // Merged update of one todo; fields are guarded by the entry's monitor
+    private static final class PendingUpdate {
+
+        private final Long id;
+        private final LocalDateTime createdAt;
+        private final Long baseVersion;
+
+        private String title;
+        private String description;
+        private boolean completed;
+        private LocalDateTime updatedAt;
+        private boolean drained;
+        // Failed flushes so far
+        private int attempts;
+
+        private PendingUpdate(Todo base) {
+            this(base.getId(), base.getCreatedAt(), base.getVersion());
+        }
+
+        private PendingUpdate(Long id, LocalDateTime createdAt, Long baseVersion) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.baseVersion = baseVersion;
+        }
+
+        private PendingUpdate copy() {
+            PendingUpdate copy = new PendingUpdate(id, createdAt, baseVersion);
+            copy.title = title;
+            copy.description = description;
+            copy.completed = completed;
+            copy.updatedAt = updatedAt;
+            copy.attempts = attempts;
+            return copy;
+        }
+
+        // The todo as it will be stored: one UPDATE per flush, so one version step
+        private Todo toTodo() {
+            Todo todo = new Todo(title, description);
+            todo.setId(id);
+            todo.setCompleted(completed);
+            todo.setCreatedAt(createdAt);
+            todo.setUpdatedAt(updatedAt);
+            todo.setVersion(baseVersion != null ? baseVersion + 1 : null);
+            return todo;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.olixc.todo.sharding;
+
+/**
+ * Layout of todo ids when sharding is enabled: the low {@link #SHARD_BITS} bits hold the
+ * index of the shard the todo is stored on, the bits above them a value of that shard's
+ * id sequence. A todo is routed by its id alone, so appending shards never moves an
+ * existing todo; new todos are spread over all shards, old and new ones (see
+ * {@link TodoShards#newId()}).
+ * <p>
+ * Shards are identified by their position, so new shards must be appended, never inserted
+ * or reordered.
+ */
+public final class ShardIds {
+
+    public static final int SHARD_BITS = 10;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private ShardIds() {
+    }
+
+    // Index of the shard the todo with this id is stored on
+    public static int shardOf(long id) {
+        return (int) (id & (MAX_SHARDS - 1));
+    }
+
+    // Id made of a value of the shard's sequence and the shard's index
+    public static long id(long sequence, int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard index must be between 0 and " + (MAX_SHARDS - 1));
+        }
+        return (sequence << SHARD_BITS) | shard;
+    }
+}
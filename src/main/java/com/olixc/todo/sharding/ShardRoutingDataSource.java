@@ -0,0 +1,75 @@
+package com.olixc.todo.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends connections to the shard selected for the current thread (see {@link TodoShards}).
+ * The shard is looked up when a connection is obtained, so this sits behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: a transaction
+ * can begin before its todo's shard is known, and runs on the shard selected when its first
+ * statement is sent. Connections obtained with no shard selected (schema validation, health
+ * checks) go to the first shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final ThreadLocal<Integer> currentShard = new ThreadLocal<>();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    public List<DataSource> shards() {
+        return shards;
+    }
+
+    public static Integer currentShard() {
+        return currentShard.get();
+    }
+
+    // Select the shard for this thread; returns the previous selection, for restore()
+    static Integer select(int shard) {
+        Integer previous = currentShard.get();
+        currentShard.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            currentShard.remove();
+        } else {
+            currentShard.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard.get();
+    }
+
+    // The pools of the further shards are created here rather than as beans, so they are
+    // closed here too; the first shard's pool is a bean of its own
+    @Override
+    public void close() throws IOException {
+        for (DataSource shard : shards.subList(1, shards.size())) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.olixc.todo.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+// Connection settings of the shards after the first (todo.sharding.datasources; the first
+// shard is spring.datasource). Username and password default to spring.datasource's.
+// Shards are identified by position: append new ones, never reorder them.
+@ConfigurationProperties("todo.sharding")
+public record ShardingProperties(List<Shard> datasources) {
+
+    public ShardingProperties {
+        datasources = datasources == null ? List.of() : List.copyOf(datasources);
+    }
+
+    public record Shard(String url, String username, String password) {
+    }
+}
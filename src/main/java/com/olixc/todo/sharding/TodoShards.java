@@ -0,0 +1,253 @@
+package com.olixc.todo.sharding;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs todo queries on the right shard when sharding is enabled (todo.sharding.enabled),
+ * and directly otherwise. Work on one todo is routed to the shard its id names
+ * ({@link ShardIds}); list queries are scattered to all shards in parallel and their
+ * results merged in order.
+ * <p>
+ * {@link #route} selects the shard on the calling thread, so it must wrap the whole
+ * transaction of that todo. Scattered queries run on worker threads, each in its own
+ * transaction, and never join one of the caller's.
+ */
+@Component
+public class TodoShards {
+
+    // todos_seq increments by 50 (V1__create_todos.sql); each value reserves the 50 ids below it
+    static final int ID_BLOCK_SIZE = 50;
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    private List<IdBlock> idBlocks = List.of();
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private ExecutorService workers;
+
+    @PostConstruct
+    void init() {
+        if (isEnabled()) {
+            idBlocks = shardRoutingDataSource.shards().stream().map(IdBlock::new).toList();
+            workers = Executors.newCachedThreadPool(workerThreadFactory());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return shardRoutingDataSource != null;
+    }
+
+    // Id for a new todo, encoding the shard it will be stored on; null when not sharded (the
+    // id sequence assigns one on insert). Shards take turns, so new todos are spread evenly.
+    public Long newId() {
+        if (!isEnabled()) {
+            return null;
+        }
+        int shard = Math.floorMod(nextShard.getAndIncrement(), idBlocks.size());
+        return ShardIds.id(idBlocks.get(shard).next(), shard);
+    }
+
+    // Run the action on the shard of the todo with this id
+    public <T> T route(Long id, Supplier<T> action) {
+        if (!isEnabled()) {
+            return action.get();
+        }
+        Integer previous = ShardRoutingDataSource.select(shardOf(id));
+        try {
+            return action.get();
+        } finally {
+            ShardRoutingDataSource.restore(previous);
+        }
+    }
+
+    // Run the query on every shard in parallel; one result per shard, in shard order
+    public <T> List<T> onEachShard(Supplier<T> query) {
+        if (!isEnabled()) {
+            return Collections.singletonList(query.get());
+        }
+        List<CompletableFuture<T>> results = new ArrayList<>(idBlocks.size());
+        for (int shard = 0; shard < idBlocks.size(); shard++) {
+            results.add(onShard(shard, query));
+        }
+        return join(results);
+    }
+
+    // Run the list query on every shard in parallel and merge the results in the given
+    // order. Each shard's rows are sorted on its worker, then merged in one pass.
+    public <T> List<T> scatter(Supplier<List<T>> query, Comparator<? super T> order) {
+        if (!isEnabled()) {
+            return query.get();
+        }
+        return merge(onEachShard(() -> {
+            List<T> rows = new ArrayList<>(query.get());
+            rows.sort(order);
+            return rows;
+        }), order);
+    }
+
+    // Run the query once per shard holding any of the ids, with just that shard's ids, in
+    // parallel. The results are concatenated in no particular order.
+    public <T> List<T> byShard(List<Long> ids, Function<List<Long>, List<T>> query) {
+        return byShard(ids, Function.identity(), query);
+    }
+
+    // Like byShard(ids, query), for items that carry an id. Items keep their order within
+    // a shard; those without an id go to the first shard.
+    public <I, T> List<T> byShard(List<I> items, Function<? super I, Long> idOf, Function<List<I>, List<T>> query) {
+        if (!isEnabled()) {
+            return query.apply(items);
+        }
+        Map<Integer, List<I>> itemsByShard = new HashMap<>();
+        for (I item : items) {
+            Long id = idOf.apply(item);
+            itemsByShard.computeIfAbsent(id != null ? shardOf(id) : 0, shard -> new ArrayList<>()).add(item);
+        }
+        List<CompletableFuture<List<T>>> results = new ArrayList<>(itemsByShard.size());
+        itemsByShard.forEach((shard, shardItems) -> results.add(onShard(shard, () -> query.apply(shardItems))));
+        List<T> rows = new ArrayList<>();
+        join(results).forEach(rows::addAll);
+        return rows;
+    }
+
+    // An id naming no configured shard cannot belong to a todo; the first shard answers for
+    // it like for any other missing id
+    int shardOf(long id) {
+        int shard = ShardIds.shardOf(id);
+        return shard < idBlocks.size() ? shard : 0;
+    }
+
+    private <T> CompletableFuture<T> onShard(int shard, Supplier<? extends T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            Integer previous = ShardRoutingDataSource.select(shard);
+            try {
+                return query.get();
+            } finally {
+                ShardRoutingDataSource.restore(previous);
+            }
+        }, workers);
+    }
+
+    private static <T> List<T> join(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // k-way merge of sorted lists; equal elements keep the order of their shards
+    static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order) {
+        record Cursor<T>(List<T> rows, int shard, int index) {
+            T head() {
+                return rows.get(index);
+            }
+        }
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                Comparator.<Cursor<T>, T>comparing(Cursor::head, order).thenComparingInt(Cursor::shard));
+        int size = 0;
+        for (int shard = 0; shard < sorted.size(); shard++) {
+            List<T> rows = sorted.get(shard);
+            size += rows.size();
+            if (!rows.isEmpty()) {
+                heads.add(new Cursor<>(rows, shard, 0));
+            }
+        }
+        List<T> merged = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (cursor.index() + 1 < cursor.rows().size()) {
+                heads.add(new Cursor<>(cursor.rows(), cursor.shard(), cursor.index() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private static CustomizableThreadFactory workerThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("todo-shards-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    // Ids of one shard, taken from its todos_seq a block at a time like Hibernate's pooled optimizer
+    private static final class IdBlock {
+
+        private final DataSource dataSource;
+        // A lock rather than synchronized: refilling queries the database, which would pin a
+        // virtual thread's carrier inside a monitor (Java 21)
+        private final Lock lock = new ReentrantLock();
+        private String nextValueSql;
+        private long next;
+        private long last = -1;
+
+        private IdBlock(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        long next() {
+            lock.lock();
+            try {
+                if (next > last) {
+                    long value = new JdbcTemplate(dataSource).queryForObject(nextValueSql(), Long.class);
+                    // The sequence starts at 1, so the first value has no ids below it
+                    next = Math.max(1, value - ID_BLOCK_SIZE + 1);
+                    last = value;
+                }
+                return next++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private String nextValueSql() {
+            if (nextValueSql == null) {
+                try {
+                    String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                    nextValueSql = "PostgreSQL".equals(product)
+                            ? "SELECT nextval('todos_seq')"
+                            : "SELECT NEXT VALUE FOR todos_seq";
+                } catch (MetaDataAccessException e) {
+                    throw new IllegalStateException("Cannot determine the database of a shard", e);
+                }
+            }
+            return nextValueSql;
+        }
+    }
+}
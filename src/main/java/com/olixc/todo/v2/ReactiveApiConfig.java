@@ -0,0 +1,138 @@
+package com.olixc.todo.v2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olixc.todo.service.TodoValidator;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Beans of the /api/v2 context, a child of the main application context started by
+ * {@link ReactiveApiServer}. Kept out of the main context (and not annotated for component
+ * scanning) because an R2DBC ConnectionFactory there would switch off the JDBC DataSource
+ * auto-configuration that /api/v1 runs on. The routes are served as functional endpoints
+ * rather than through {@code @EnableWebFlux}, which refuses to run next to Spring MVC.
+ */
+@EnableR2dbcRepositories(basePackageClasses = ReactiveTodoRepository.class)
+public class ReactiveApiConfig extends AbstractR2dbcConfiguration {
+
+    @Value("${todo.v2.r2dbc.url}")
+    private String url;
+
+    @Value("${todo.v2.r2dbc.username:}")
+    private String username;
+
+    @Value("${todo.v2.r2dbc.password:}")
+    private String password;
+
+    @Value("${todo.v2.r2dbc.max-pool-size:20}")
+    private int maxPoolSize;
+
+    private final ObjectMapper objectMapper;
+
+    public ReactiveApiConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory() {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("api-v2")
+                .maxSize(maxPoolSize)
+                .maxIdleTime(Duration.ofMinutes(10))
+                .build());
+    }
+
+    // Ids come from todos_seq like Hibernate's. Its pooled optimizer treats every value it
+    // fetches as the top of a block of 50 ids, so a value fetched here is never handed out twice.
+    @Bean
+    public BeforeConvertCallback<TodoRow> todoIdAssignment(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        String nextId = DialectResolver.getDialect(connectionFactory) instanceof PostgresDialect
+                ? "SELECT nextval('todos_seq')"
+                : "SELECT NEXT VALUE FOR todos_seq";
+        return (todo, table) -> {
+            if (todo.getId() != null) {
+                return Mono.just(todo);
+            }
+            return databaseClient.sql(nextId)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(id -> {
+                        todo.setId(id);
+                        return todo;
+                    });
+        };
+    }
+
+    @Bean
+    public ReactiveTodoService reactiveTodoService(ReactiveTodoRepository todoRepository, ApplicationEventPublisher eventPublisher,
+                                                   TodoValidator todoValidator) {
+        return new ReactiveTodoService(todoRepository, eventPublisher, todoValidator);
+    }
+
+    @Bean
+    public TodoV2Handler todoV2Handler(ReactiveTodoService reactiveTodoService) {
+        return new TodoV2Handler(reactiveTodoService);
+    }
+
+    // Specific paths before /{id}
+    @Bean
+    public RouterFunction<ServerResponse> todoV2Routes(TodoV2Handler handler) {
+        return route()
+                .path("/api/v2/todos", todos -> todos
+                        .GET("", handler::getAllTodos)
+                        .GET("/completed", handler::getCompletedTodos)
+                        .GET("/pending", handler::getPendingTodos)
+                        .GET("/search", handler::searchTodosByTitle)
+                        .GET("/{id}", handler::getTodoById)
+                        .POST("", handler::createTodo)
+                        .PUT("/{id}", handler::updateTodo)
+                        .DELETE("/{id}", handler::deleteTodo))
+                .onError(IllegalArgumentException.class, handler::handleBadRequest)
+                .onError(DataIntegrityViolationException.class, handler::handleInvalidData)
+                .onError(OptimisticLockingFailureException.class, handler::handleConflict)
+                .build();
+    }
+
+    // Codecs of the routes, using the main context's ObjectMapper so both APIs write the same JSON
+    @Bean
+    public HandlerStrategies handlerStrategies() {
+        return HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.olixc.todo.v2;
+
+import com.olixc.todo.ratelimit.RateLimitWebFilter;
+import com.olixc.todo.ratelimit.RateLimiter;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.handler.WebFluxResponseStatusExceptionHandler;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Serves /api/v2 from WebFlux on Reactor Netty, on its own port ({@code todo.v2.port}) next
+ * to Tomcat's /api/v1. Requests are handled on a few event-loop threads and the database is
+ * reached through R2DBC, so in-flight requests don't each hold a thread.
+ * <p>
+ * The v2 beans live in a child context ({@link ReactiveApiConfig}) that can use the main
+ * context's beans (ObjectMapper, event listeners, observation registry) but not the other way
+ * round. Requests are recorded in http.server.requests and rate limited like /api/v1's.
+ */
+@Component
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "todo.v2.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveApiServer.class);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ObjectProvider<ObservationRegistry> observationRegistry;
+
+    @Autowired
+    private ObjectProvider<RateLimiter> rateLimiter;
+
+    @Value("${todo.v2.port:8081}")
+    private int port;
+
+    private AnnotationConfigApplicationContext context;
+    private volatile DisposableServer server;
+
+    @Override
+    public void start() {
+        context = new AnnotationConfigApplicationContext();
+        context.setId(applicationContext.getId() + "-api-v2");
+        context.setParent(applicationContext);
+        context.register(ReactiveApiConfig.class);
+        context.refresh();
+
+        @SuppressWarnings("unchecked")
+        RouterFunction<ServerResponse> routes = context.getBean(RouterFunction.class);
+        WebHttpHandlerBuilder handlerBuilder = WebHttpHandlerBuilder
+                .webHandler(RouterFunctions.toWebHandler(routes, context.getBean(HandlerStrategies.class)))
+                .exceptionHandler(new WebFluxResponseStatusExceptionHandler())
+                .observationRegistry(observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+        // Same limits and buckets as /api/v1 (todo.rate-limit)
+        rateLimiter.ifAvailable(limiter -> handlerBuilder.filter(new RateLimitWebFilter(limiter)));
+        HttpHandler httpHandler = handlerBuilder.build();
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("/api/v2 started on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    // The bound port, e.g. when todo.v2.port is 0
+    public int getPort() {
+        return server.port();
+    }
+}
@@ -0,0 +1,18 @@
+package com.olixc.todo.v2;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+// R2DBC counterpart of TodoRepository for /api/v2. Fluxes emit rows as the driver
+// receives them, so a slow subscriber slows the query down instead of buffering the table.
+public interface ReactiveTodoRepository extends ReactiveCrudRepository<TodoRow, Long> {
+
+    // All todos in id order
+    Flux<TodoRow> findAllByOrderByIdAsc();
+
+    // Completed or pending todos in id order
+    Flux<TodoRow> findByCompletedOrderByIdAsc(boolean completed);
+
+    // Todos whose title contains the text (case-insensitive), in id order
+    Flux<TodoRow> findByTitleContainingIgnoreCaseOrderByIdAsc(String title);
+}
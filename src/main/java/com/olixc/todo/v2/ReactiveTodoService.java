@@ -0,0 +1,87 @@
+package com.olixc.todo.v2;
+
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.service.TodoValidator;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// The /api/v2 operations, mirroring TodoService. Writes publish the same TodoChangedEvents
+// (they reach the main context's listeners), so the v1 cache, search index, counters and
+// change feed stay in step with writes made through v2. Todos are validated like v1's.
+public class ReactiveTodoService {
+
+    private final ReactiveTodoRepository todoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoValidator todoValidator;
+
+    public ReactiveTodoService(ReactiveTodoRepository todoRepository, ApplicationEventPublisher eventPublisher,
+                               TodoValidator todoValidator) {
+        this.todoRepository = todoRepository;
+        this.eventPublisher = eventPublisher;
+        this.todoValidator = todoValidator;
+    }
+
+    // Get all todos
+    public Flux<TodoRow> getAllTodos() {
+        return todoRepository.findAllByOrderByIdAsc();
+    }
+
+    // Get todo by ID
+    public Mono<TodoRow> getTodoById(Long id) {
+        return todoRepository.findById(id);
+    }
+
+    // Get todos by completion status
+    public Flux<TodoRow> getTodosByStatus(boolean completed) {
+        return todoRepository.findByCompletedOrderByIdAsc(completed);
+    }
+
+    // Search todos by title
+    public Flux<TodoRow> searchTodosByTitle(String title) {
+        return todoRepository.findByTitleContainingIgnoreCaseOrderByIdAsc(title);
+    }
+
+    // Create new todo; the id and version are assigned by the server
+    public Mono<TodoRow> createTodo(TodoRow todo) {
+        String problems = todoValidator.problems(todo);
+        if (problems != null) {
+            return Mono.error(new IllegalArgumentException(problems));
+        }
+        todo.setId(null);
+        todo.setVersion(null);
+        todo.setCreatedAt(LocalDateTime.now());
+        todo.setUpdatedAt(todo.getCreatedAt());
+        return todoRepository.save(todo)
+                .doOnNext(saved -> eventPublisher.publishEvent(TodoChangedEvent.created(saved.toTodo())));
+    }
+
+    // Update existing todo; empty if it does not exist. Fails with an
+    // OptimisticLockingFailureException if the row changed since it was read.
+    public Mono<TodoRow> updateTodo(Long id, TodoRow todoDetails) {
+        String problems = todoValidator.problems(todoDetails);
+        if (problems != null) {
+            return Mono.error(new IllegalArgumentException(problems));
+        }
+        return todoRepository.findById(id).flatMap(todo -> {
+            boolean previousCompleted = todo.isCompleted();
+            todo.setTitle(todoDetails.getTitle());
+            todo.setDescription(todoDetails.getDescription());
+            todo.setCompleted(todoDetails.isCompleted());
+            todo.setUpdatedAt(LocalDateTime.now());
+            return todoRepository.save(todo)
+                    .doOnNext(saved -> eventPublisher.publishEvent(TodoChangedEvent.updated(saved.toTodo(), previousCompleted)));
+        });
+    }
+
+    // Delete todo; false if it did not exist
+    public Mono<Boolean> deleteTodo(Long id) {
+        return todoRepository.findById(id)
+                .flatMap(todo -> todoRepository.delete(todo)
+                        .doOnSuccess(done -> eventPublisher.publishEvent(TodoChangedEvent.deleted(id, todo.isCompleted())))
+                        .thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+}
@@ -0,0 +1,108 @@
+package com.olixc.todo.v2;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.olixc.todo.entity.Todo;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// A row of the todos table as read and written by the R2DBC repository. Same table and
+// JSON shape as the Todo entity of /api/v1.
+@Table("todos")
+public class TodoRow {
+
+    // Taken from todos_seq before insert (see ReactiveApiConfig)
+    @Id
+    private Long id;
+
+    // The same limits as the Todo entity's, checked by TodoValidator before every write
+    @NotBlank
+    @Size(max = 255)
+    private String title;
+
+    @Size(max = 255)
+    private String description;
+
+    private boolean completed;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock shared with /api/v1: an update based on a stale row fails
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // The entity form, for the TodoChangedEvent listeners (cache, search index, counters, feed)
+    Todo toTodo() {
+        Todo todo = new Todo(title, description);
+        todo.setId(id);
+        todo.setCompleted(completed);
+        todo.setCreatedAt(createdAt);
+        todo.setUpdatedAt(updatedAt);
+        todo.setVersion(version);
+        return todo;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,107 @@
+package com.olixc.todo.v2;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Request handling of /api/v2/todos (routes in ReactiveApiConfig). Lists are streamed: with
+// Accept: application/x-ndjson every todo is written as soon as it is read, and rows are only
+// requested from the database as fast as the client takes them.
+public class TodoV2Handler {
+
+    private final ReactiveTodoService todoService;
+
+    public TodoV2Handler(ReactiveTodoService todoService) {
+        this.todoService = todoService;
+    }
+
+    // GET /api/v2/todos
+    public Mono<ServerResponse> getAllTodos(ServerRequest request) {
+        return list(request, todoService.getAllTodos());
+    }
+
+    // GET /api/v2/todos/completed
+    public Mono<ServerResponse> getCompletedTodos(ServerRequest request) {
+        return list(request, todoService.getTodosByStatus(true));
+    }
+
+    // GET /api/v2/todos/pending
+    public Mono<ServerResponse> getPendingTodos(ServerRequest request) {
+        return list(request, todoService.getTodosByStatus(false));
+    }
+
+    // GET /api/v2/todos/search?title=keyword
+    public Mono<ServerResponse> searchTodosByTitle(ServerRequest request) {
+        return Mono.justOrEmpty(request.queryParam("title"))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("title is required")))
+                .flatMap(title -> list(request, todoService.searchTodosByTitle(title)));
+    }
+
+    // GET /api/v2/todos/{id}
+    public Mono<ServerResponse> getTodoById(ServerRequest request) {
+        return id(request)
+                .flatMap(todoService::getTodoById)
+                .flatMap(todo -> ServerResponse.ok().bodyValue(todo))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // POST /api/v2/todos
+    public Mono<ServerResponse> createTodo(ServerRequest request) {
+        return request.bodyToMono(TodoRow.class)
+                .flatMap(todoService::createTodo)
+                .flatMap(todo -> ServerResponse.status(HttpStatus.CREATED).bodyValue(todo));
+    }
+
+    // PUT /api/v2/todos/{id}
+    public Mono<ServerResponse> updateTodo(ServerRequest request) {
+        return id(request)
+                .flatMap(id -> request.bodyToMono(TodoRow.class)
+                        .flatMap(details -> todoService.updateTodo(id, details)))
+                .flatMap(todo -> ServerResponse.ok().bodyValue(todo))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // DELETE /api/v2/todos/{id}
+    public Mono<ServerResponse> deleteTodo(ServerRequest request) {
+        return id(request)
+                .flatMap(todoService::deleteTodo)
+                .flatMap(deleted -> deleted ? ServerResponse.noContent().build() : ServerResponse.notFound().build());
+    }
+
+    // Same error bodies as /api/v1
+    Mono<ServerResponse> handleBadRequest(Throwable e, ServerRequest request) {
+        return ServerResponse.badRequest().bodyValue(Map.of("error", e.getMessage()));
+    }
+
+    // A value the database refused; its message would expose the SQL
+    Mono<ServerResponse> handleInvalidData(Throwable e, ServerRequest request) {
+        return ServerResponse.badRequest().bodyValue(Map.of("error", "The todo violates a constraint of the todos table"));
+    }
+
+    Mono<ServerResponse> handleConflict(Throwable e, ServerRequest request) {
+        return ServerResponse.status(HttpStatus.PRECONDITION_FAILED)
+                .bodyValue(Map.of("error", "The todo has been modified; fetch it again and retry"));
+    }
+
+    private static Mono<ServerResponse> list(ServerRequest request, Flux<TodoRow> todos) {
+        boolean ndjson = request.headers().accept().stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+        return ServerResponse.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(todos, TodoRow.class);
+    }
+
+    // Errors are signalled rather than thrown, so the route's onError handlers see them
+    private static Mono<Long> id(ServerRequest request) {
+        try {
+            return Mono.just(Long.valueOf(request.pathVariable("id")));
+        } catch (NumberFormatException e) {
+            return Mono.error(new IllegalArgumentException("id must be a number"));
+        }
+    }
+}
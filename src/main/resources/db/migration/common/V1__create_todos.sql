@@ -0,0 +1,15 @@
+-- Todos table and its id sequence, as previously generated by Hibernate.
+-- Databases created by ddl-auto: update are baselined at this version.
+
+-- Hibernate's pooled optimizer reserves 50 ids per sequence call (Todo.id allocationSize)
+CREATE SEQUENCE todos_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE todos (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    title       VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    completed   BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    version     BIGINT       NOT NULL DEFAULT 0
+);
@@ -0,0 +1,3 @@
+-- findByCompleted*, the completed/pending keyset pages and the per-status list versions
+-- all filter on completed and order or aggregate by id
+CREATE INDEX todos_completed_id_idx ON todos (completed, id);
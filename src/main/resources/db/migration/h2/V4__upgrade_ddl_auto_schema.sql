@@ -0,0 +1,15 @@
+-- Databases created by the former ddl-auto: update are baselined at V1 but were built from
+-- older versions of the entity: an identity id and, depending on the release, no todos_seq
+-- and no version column. Bring them to the V1 schema; on databases created by V1 every
+-- statement is a no-op.
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Ids come from todos_seq (or the service, with sharding), never from the column
+ALTER TABLE todos ALTER COLUMN id DROP IDENTITY;
+
+-- The pooled optimizer takes the 50 ids up to each sequence value, so the next value must
+-- be at least 50 past the highest existing id; a sequence already beyond that is kept
+CREATE SEQUENCE IF NOT EXISTS todos_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE todos_seq RESTART WITH (SELECT GREATEST(
+        (SELECT COALESCE(MAX(id), 0) + 50 FROM todos),
+        (SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'TODOS_SEQ')));
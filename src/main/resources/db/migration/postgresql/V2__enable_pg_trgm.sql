@@ -0,0 +1,2 @@
+-- Trigram operator classes for the title search index (trusted extension since PostgreSQL 13)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
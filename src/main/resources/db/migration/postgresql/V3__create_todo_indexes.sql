@@ -0,0 +1,14 @@
+-- Built CONCURRENTLY so existing tables stay writable; Flyway runs this script outside a
+-- transaction. IF NOT EXISTS makes a retry after an interrupted build safe.
+
+-- findByCompleted*, the completed/pending keyset pages and the per-status list versions
+-- all filter on completed and order or aggregate by id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS todos_completed_id_idx ON todos (completed, id);
+
+-- The pending list is the one clients poll; most todos end up completed, so an index of
+-- just the pending ids stays small and hot
+CREATE INDEX CONCURRENTLY IF NOT EXISTS todos_pending_id_idx ON todos (id) WHERE completed = false;
+
+-- findByTitleContainingIgnoreCase* compiles to upper(title) LIKE upper('%...%'); a
+-- trigram index on the same expression serves the leading wildcard
+CREATE INDEX CONCURRENTLY IF NOT EXISTS todos_title_trgm_idx ON todos USING gin (upper(title) gin_trgm_ops);
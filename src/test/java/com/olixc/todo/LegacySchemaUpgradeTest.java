@@ -0,0 +1,91 @@
+package com.olixc.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// A database as the former ddl-auto: update created it from the original entity (identity
+// id, no todos_seq, no version column), migrated by Flyway when the application starts
+@SpringBootTest(properties = {
+        "todo.v2.enabled=false",
+        "spring.cache.type=none"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LegacySchemaUpgradeTest {
+
+    private static final String LEGACY_URL = "jdbc:h2:mem:legacy-schema;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(LEGACY_URL, "sa", ""));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Runs before the application context is created, so Flyway finds the legacy schema
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) {
+        legacy.execute("DROP ALL OBJECTS");
+        legacy.execute("CREATE TABLE todos (completed BOOLEAN NOT NULL, created_at TIMESTAMP(6), "
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY, updated_at TIMESTAMP(6), description VARCHAR(255), "
+                + "title VARCHAR(255) NOT NULL, PRIMARY KEY (id))");
+        legacy.update("INSERT INTO todos (title, completed) VALUES ('Legacy pending', FALSE), ('Legacy done', TRUE)");
+        legacy.update("INSERT INTO todos (id, title, completed) VALUES (70, 'Legacy high id', FALSE)");
+        registry.add("spring.datasource.url", () -> LEGACY_URL);
+    }
+
+    @Test
+    void migrate_ShouldBaselineAndUpgradeTheLegacySchema() {
+        List<String> versions = legacy.queryForList(
+                "SELECT \"version\" || ' ' || \"type\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL AND \"success\" ORDER BY \"installed_rank\"",
+                String.class);
+        assertEquals(List.of("1 BASELINE", "2 SQL", "4 SQL"), versions);
+        assertEquals("NO", legacy.queryForObject(
+                "SELECT IS_IDENTITY FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'TODOS' AND COLUMN_NAME = 'ID'", String.class));
+    }
+
+    @Test
+    void legacyTodos_ShouldBeReadableAndWritableWithVersions() throws Exception {
+        mockMvc.perform(get("/api/v1/todos/70"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Legacy high id"))
+                .andExpect(jsonPath("$.version").value(0));
+
+        mockMvc.perform(patch("/api/v1/todos/70")
+                        .contentType("application/merge-patch+json")
+                        .header("If-Match", "\"70-0\"")
+                        .content("{\"completed\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void create_ShouldTakeIdsPastTheLegacyOnes() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            String body = mockMvc.perform(post("/api/v1/todos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"After upgrade " + i + "\"}"))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            assertTrue(objectMapper.readTree(body).get("id").asLong() > 70, body);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.olixc.todo;
+
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.logging.SqlTrace;
+import com.olixc.todo.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Exposed on an internal management port in production, see application.yml
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,prometheus,sqltrace")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private SqlTrace sqlTrace;
+
+    private Long todoId;
+
+    @BeforeEach
+    void setUp() {
+        todoRepository.deleteAll();
+        todoId = todoRepository.save(new Todo("Metrics Todo", "Scraped")).getId();
+        todoRepository.save(new Todo("Second Todo", null));
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeEndpointQueryAndPoolHistograms() throws Exception {
+        mockMvc.perform(get("/api/v1/todos")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/todos/{id}", todoId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/todos/search").param("title", "needle-term")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/v1/todos/{id}\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("method=\"findViewsBy\"")))
+                .andExpect(content().string(containsString("todo_repository_rows_sum{")))
+                .andExpect(content().string(containsString("method=\"findViewsBy\",repository=\"TodoRepository\",} 2.0")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")))
+                // Ids and search terms never become tag values
+                .andExpect(content().string(not(containsString("/api/v1/todos/" + todoId))))
+                .andExpect(content().string(not(containsString("needle-term"))));
+    }
+
+    @Test
+    void sqlTraceEndpoint_ShouldChangeSamplingAtRuntime() throws Exception {
+        mockMvc.perform(get("/actuator/sqltrace"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampleRate").value(0.01))
+                .andExpect(jsonPath("$.slowThreshold").value("PT0.5S"));
+
+        try {
+            mockMvc.perform(post("/actuator/sqltrace")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"sampleRate\": 1, \"slowThreshold\": \"250ms\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.sampleRate").value(1.0))
+                    .andExpect(jsonPath("$.slowThreshold").value("PT0.25S"));
+            assertEquals(1.0, sqlTrace.getSampleRate());
+        } finally {
+            sqlTrace.setSampleRate(0.01);
+            sqlTrace.setSlowThreshold(Duration.ofMillis(500));
+        }
+    }
+}
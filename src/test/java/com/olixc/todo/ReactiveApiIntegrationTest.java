@@ -0,0 +1,186 @@
+package com.olixc.todo;
+
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.v2.ReactiveApiServer;
+import com.olixc.todo.v2.TodoRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// /api/v2 through Reactor Netty and r2dbc-h2, on the same in-memory database as /api/v1
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReactiveApiIntegrationTest {
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveApiServer.getPort()).build();
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    void fullCrudWorkflow_ShouldWorkEndToEnd() {
+        // version is read-only when reading JSON, so it is checked on the body
+        TodoRow created = client.post().uri("/api/v2/todos")
+                .bodyValue(Map.of("title", "Reactive todo", "description", "Created through v2"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TodoRow.class)
+                .consumeWith(result -> assertTrue(new String(result.getResponseBodyContent()).contains("\"version\":0")))
+                .returnResult().getResponseBody();
+        assertNotNull(created.getId());
+        assertNotNull(created.getCreatedAt());
+
+        client.get().uri("/api/v2/todos/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Reactive todo")
+                .jsonPath("$.completed").isEqualTo(false);
+
+        client.put().uri("/api/v2/todos/{id}", created.getId())
+                .bodyValue(Map.of("title", "Reactive todo, done", "completed", true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Reactive todo, done")
+                .jsonPath("$.completed").isEqualTo(true)
+                .jsonPath("$.version").isEqualTo(1);
+
+        client.delete().uri("/api/v2/todos/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+        client.get().uri("/api/v2/todos/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+        client.delete().uri("/api/v2/todos/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void listsAndSearch_ShouldMirrorV1() {
+        Todo done = new Todo("Buy milk", null);
+        done.setCompleted(true);
+        todoRepository.saveAll(List.of(done, new Todo("Buy bread", null), new Todo("Walk the dog", null)));
+
+        client.get().uri("/api/v2/todos").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(3);
+        client.get().uri("/api/v2/todos/completed").exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("Buy milk");
+        client.get().uri("/api/v2/todos/pending").exchange()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+        client.get().uri("/api/v2/todos/search?title=BUY").exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].title").isEqualTo("Buy milk")
+                .jsonPath("$[1].title").isEqualTo("Buy bread");
+    }
+
+    @Test
+    void ndjsonList_ShouldStreamWithBackpressure() {
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            todos.add(new Todo("Streamed todo " + i, null));
+        }
+        todoRepository.saveAll(todos);
+
+        // One row requested at a time, and the stream cancelled after ten
+        List<TodoRow> firstTen = WebClient.create("http://localhost:" + reactiveApiServer.getPort())
+                .get().uri("/api/v2/todos")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(TodoRow.class)
+                .limitRate(1)
+                .take(10)
+                .collectList()
+                .block();
+
+        assertEquals(10, firstTen.size());
+        assertEquals("Streamed todo 0", firstTen.get(0).getTitle());
+        client.get().uri("/api/v2/todos").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Test
+    void writesThroughV2_ShouldBeVisibleThroughV1() throws Exception {
+        Todo todo = todoRepository.save(new Todo("Written by v1", null));
+        // Cached by v1
+        mockMvc.perform(get("/api/v1/todos/" + todo.getId())).andExpect(jsonPath("$.title").value("Written by v1"));
+
+        client.put().uri("/api/v2/todos/{id}", todo.getId())
+                .bodyValue(Map.of("title", "Updated by v2"))
+                .exchange()
+                .expectStatus().isOk();
+
+        mockMvc.perform(get("/api/v1/todos/" + todo.getId())).andExpect(jsonPath("$.title").value("Updated by v2"));
+        mockMvc.perform(get("/api/v1/todos/search").param("title", "v2")).andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void idsFromBothApis_ShouldNotCollide() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(todoRepository.save(new Todo("v1 todo " + i, null)).getId());
+            ids.add(client.post().uri("/api/v2/todos").bodyValue(Map.of("title", "v2 todo " + i))
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody(TodoRow.class).returnResult().getResponseBody().getId());
+        }
+        assertEquals(6, ids.stream().distinct().count());
+        assertEquals(6, todoRepository.count());
+    }
+
+    @Test
+    void invalidRequests_ShouldGet400() {
+        client.post().uri("/api/v2/todos").bodyValue(Map.of("description", "No title"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("title must not be blank");
+        client.post().uri("/api/v2/todos").bodyValue(Map.of("title", " "))
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.post().uri("/api/v2/todos").bodyValue(Map.of("title", "Title", "description", "x".repeat(256)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("description size must be between 0 and 255");
+        Long id = todoRepository.save(new Todo("Stored", null)).getId();
+        client.put().uri("/api/v2/todos/{id}", id).bodyValue(Map.of("title", ""))
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/v2/todos/search").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/v2/todos/abc").exchange().expectStatus().isBadRequest();
+    }
+}
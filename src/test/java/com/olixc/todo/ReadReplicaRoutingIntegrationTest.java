@@ -0,0 +1,162 @@
+package com.olixc.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olixc.todo.routing.ConsistencyToken;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two embedded H2 databases stand in for the primary and a replica. Nothing replicates
+// between them, so where a read was served shows in whether it sees the primary's writes.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingIntegrationTest.PRIMARY_URL,
+        "todo.read-replicas.enabled=true",
+        "todo.read-replicas.max-lag=PT10S",
+        "todo.read-replicas.datasources[0].url=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    // The replica's schema would arrive through replication; it must exist before the context
+    // starts, since startup reads (search index, stats) already go to the replica
+    static {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        primary.update("DELETE FROM todos");
+        replica.update("DELETE FROM todos");
+    }
+
+    @Test
+    void write_ShouldGoToPrimaryAndReturnConsistencyToken() throws Exception {
+        MvcResult created = create("Written to the primary");
+
+        String token = created.getResponse().getHeader(ConsistencyToken.HEADER);
+        assertNotNull(token);
+        assertTrue(Long.parseLong(token) <= System.currentTimeMillis());
+        assertEquals(1, count(primary));
+        assertEquals(0, count(replica));
+    }
+
+    @Test
+    void readWithoutToken_ShouldGoToReplica() throws Exception {
+        long id = id(create("Not replicated yet"));
+
+        mockMvc.perform(get("/api/v1/todos/" + id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/todos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void readWithRecentToken_ShouldBePinnedToPrimary() throws Exception {
+        MvcResult created = create("Read your writes");
+        long id = id(created);
+        String token = created.getResponse().getHeader(ConsistencyToken.HEADER);
+
+        mockMvc.perform(get("/api/v1/todos/" + id).header(ConsistencyToken.HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Read your writes"));
+        mockMvc.perform(get("/api/v1/todos").header(ConsistencyToken.HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void readWithExpiredToken_ShouldGoToReplica() throws Exception {
+        long id = id(create("Replica has caught up"));
+        String expired = Long.toString(System.currentTimeMillis() - 60_000);
+
+        mockMvc.perform(get("/api/v1/todos/" + id).header(ConsistencyToken.HEADER, expired))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void replicatedRow_ShouldBeReadFromReplica() throws Exception {
+        replica.update("INSERT INTO todos (id, title, completed, created_at, updated_at, version) "
+                + "VALUES (4242, 'Only on the replica', FALSE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)");
+
+        mockMvc.perform(get("/api/v1/todos/4242"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Only on the replica"));
+    }
+
+    @Test
+    void readsOfALaggingReplica_ShouldNotBeCached() throws Exception {
+        // Given: a todo on both, cached from the replica
+        String insert = "INSERT INTO todos (id, title, completed, created_at, updated_at, version) "
+                + "VALUES (4343, 'Old title', FALSE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)";
+        primary.update(insert);
+        replica.update(insert);
+        mockMvc.perform(get("/api/v1/todos/4343"))
+                .andExpect(jsonPath("$.title").value("Old title"));
+
+        // When: it is updated, and read from the replica before the update is replicated
+        String token = mockMvc.perform(put("/api/v1/todos/4343")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New title\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(ConsistencyToken.HEADER);
+        mockMvc.perform(get("/api/v1/todos/4343"))
+                .andExpect(jsonPath("$.title").value("Old title"));
+
+        // Then: the stale read was not cached, neither for the writer nor once replicated
+        mockMvc.perform(get("/api/v1/todos/4343").header(ConsistencyToken.HEADER, token))
+                .andExpect(jsonPath("$.title").value("New title"));
+        replica.update("UPDATE todos SET title = 'New title', version = 1 WHERE id = 4343");
+        mockMvc.perform(get("/api/v1/todos/4343"))
+                .andExpect(jsonPath("$.title").value("New title"));
+    }
+
+    private MvcResult create(String title) throws Exception {
+        return mockMvc.perform(post("/api/v1/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"" + title + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+
+    private long id(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private static int count(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM todos", Integer.class);
+    }
+}
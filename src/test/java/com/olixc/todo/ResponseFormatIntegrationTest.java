@@ -0,0 +1,108 @@
+package com.olixc.todo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Content negotiation and compression as seen through the embedded server
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ResponseFormatIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        todoRepository.deleteAll();
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            todos.add(new Todo("Format todo " + i, "Description of todo " + i));
+        }
+        todoRepository.saveAll(todos);
+    }
+
+    @Test
+    void listWithoutAccept_ShouldStayJson() throws Exception {
+        HttpResponse<byte[]> response = get("/api/v1/todos", "*/*", null);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        assertEquals(50, objectMapper.readTree(response.body()).size());
+    }
+
+    @Test
+    void largeList_ShouldBeGzippedWhenAccepted() throws Exception {
+        HttpResponse<byte[]> plain = get("/api/v1/todos", "application/json", null);
+        HttpResponse<byte[]> gzipped = get("/api/v1/todos", "application/json", "gzip");
+
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(gzipped.headers().firstValue("ETag").isPresent());
+        assertTrue(gzipped.body().length < plain.body().length / 2);
+        assertArrayEquals(plain.body(), gunzip(gzipped.body()));
+    }
+
+    @Test
+    void smallResponse_ShouldNotBeCompressed() throws Exception {
+        HttpResponse<byte[]> response = get("/api/v1/todos/search?title=todo%2049", "application/json", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    @Test
+    void binaryAndColumnarFormats_ShouldBeSmallerThanJson() throws Exception {
+        HttpResponse<byte[]> json = get("/api/v1/todos", "application/json", null);
+        HttpResponse<byte[]> smile = get("/api/v1/todos", "application/x-jackson-smile", null);
+        HttpResponse<byte[]> columnar = get("/api/v1/todos?layout=columnar", "application/json", null);
+
+        assertEquals("application/x-jackson-smile", smile.headers().firstValue("Content-Type").orElseThrow());
+        JsonNode decoded = new SmileMapper().readTree(smile.body());
+        assertEquals(objectMapper.readTree(json.body()), decoded);
+        assertTrue(smile.body().length < json.body().length);
+        assertTrue(columnar.body().length < json.body().length);
+        assertEquals(50, objectMapper.readTree(columnar.body()).get("id").size());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
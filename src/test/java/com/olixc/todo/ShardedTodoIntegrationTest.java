@@ -0,0 +1,219 @@
+package com.olixc.todo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olixc.todo.sharding.ShardIds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Three embedded H2 databases as shards. Each is read directly as well, to check that a
+// todo is stored on the one shard its id maps to and that lists combine all of them.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ShardedTodoIntegrationTest.SHARD_0_URL,
+        "todo.sharding.enabled=true",
+        "todo.sharding.datasources[0].url=" + ShardedTodoIntegrationTest.SHARD_1_URL,
+        "todo.sharding.datasources[1].url=" + ShardedTodoIntegrationTest.SHARD_2_URL,
+        "todo.v2.enabled=false",
+        "spring.cache.type=none"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShardedTodoIntegrationTest {
+
+    static final String SHARD_0_URL = "jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1_URL = "jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2_URL = "jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1";
+
+    private static final List<JdbcTemplate> shards = List.of(
+            new JdbcTemplate(new DriverManagerDataSource(SHARD_0_URL, "sa", "")),
+            new JdbcTemplate(new DriverManagerDataSource(SHARD_1_URL, "sa", "")),
+            new JdbcTemplate(new DriverManagerDataSource(SHARD_2_URL, "sa", "")));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        shards.forEach(shard -> shard.update("DELETE FROM todos"));
+    }
+
+    @Test
+    void create_ShouldStoreEachTodoOnTheShardItsIdMapsTo() throws Exception {
+        List<Long> ids = createTodos(30);
+
+        for (Long id : ids) {
+            int shard = ShardIds.shardOf(id);
+            for (int other = 0; other < shards.size(); other++) {
+                assertEquals(other == shard ? 1 : 0, count(shards.get(other), id), "todo " + id + " on shard " + other);
+            }
+        }
+        // Shards take turns, so all of them hold some
+        shards.forEach(shard -> assertEquals(10, shard.queryForObject("SELECT COUNT(*) FROM todos", Integer.class)));
+        assertEquals(30, ids.stream().distinct().count());
+    }
+
+    @Test
+    void readUpdateDelete_ShouldRouteToOneShard() throws Exception {
+        List<Long> ids = createTodos(6);
+
+        for (Long id : ids) {
+            mockMvc.perform(get("/api/v1/todos/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(id));
+
+            mockMvc.perform(put("/api/v1/todos/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Updated " + id + "\",\"completed\":true}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value("Updated " + id));
+            JdbcTemplate shard = shards.get(ShardIds.shardOf(id));
+            assertEquals("Updated " + id, shard.queryForObject("SELECT title FROM todos WHERE id = ?", String.class, id));
+
+            mockMvc.perform(patch("/api/v1/todos/" + id)
+                            .contentType("application/merge-patch+json")
+                            .content("{\"completed\":false}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.completed").value(false));
+
+            mockMvc.perform(delete("/api/v1/todos/" + id))
+                    .andExpect(status().isNoContent());
+            assertEquals(0, count(shard, id));
+            mockMvc.perform(get("/api/v1/todos/" + id))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Test
+    void lists_ShouldMergeAllShardsInIdOrder() throws Exception {
+        List<Long> ids = createTodos(12);
+        for (Long id : ids.subList(0, 4)) {
+            mockMvc.perform(patch("/api/v1/todos/" + id)
+                            .contentType("application/merge-patch+json")
+                            .content("{\"completed\":true}"))
+                    .andExpect(status().isOk());
+        }
+        List<Long> sorted = ids.stream().sorted().toList();
+
+        assertEquals(sorted, listIds("/api/v1/todos"));
+        assertEquals(ids.subList(0, 4).stream().sorted().toList(), listIds("/api/v1/todos/completed"));
+        assertEquals(ids.subList(4, 12).stream().sorted().toList(), listIds("/api/v1/todos/pending"));
+        // Index search (three or more characters) and database search (shorter)
+        assertEquals(sorted, listIds("/api/v1/todos/search?title=sharded"));
+        assertEquals(sorted, listIds("/api/v1/todos/search?title=TO"));
+        assertEquals(List.of(ids.get(7)), listIds("/api/v1/todos/search?title={title}", "todo 7x"));
+    }
+
+    @Test
+    void pages_ShouldWalkAllShardsInIdOrder() throws Exception {
+        List<Long> ids = createTodos(20);
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            String uri = "/api/v1/todos?limit=7" + (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get(uri))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(todo -> paged.add(todo.get("id").asLong()));
+            cursor = page.hasNonNull("next") ? page.get("next").asText() : null;
+        } while (cursor != null);
+
+        assertEquals(ids.stream().sorted().toList(), paged);
+    }
+
+    @Test
+    void multiGet_ShouldCollectTodosFromEveryShard() throws Exception {
+        List<Long> ids = createTodos(9);
+
+        mockMvc.perform(post("/api/v1/todos/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(ids.get(8), ids.get(0), 424242L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos[*].id", contains(ids.get(8).intValue(), ids.get(0).intValue())))
+                .andExpect(jsonPath("$.missing", contains(424242)));
+    }
+
+    @Test
+    void bulk_ShouldApplyEachItemOnItsShardAndReportInRequestOrder() throws Exception {
+        List<Long> ids = createTodos(6);
+        long missing = ShardIds.id(999_999, 1);
+        String request = "{\"create\":[{\"title\":\"Bulk 0\"},{\"title\":\"\"},{\"title\":\"Bulk 2\"},{\"title\":\"Bulk 3\"}],"
+                + "\"update\":[" + update(ids.get(0)) + "," + update(missing) + "," + update(ids.get(1)) + "," + update(ids.get(2)) + "],"
+                + "\"delete\":[" + ids.get(3) + "," + missing + "," + ids.get(4) + "]}";
+
+        String body = mockMvc.perform(post("/api/v1/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created[*].index", contains(0, 1, 2, 3)))
+                .andExpect(jsonPath("$.created[*].status", contains("CREATED", "INVALID", "CREATED", "CREATED")))
+                .andExpect(jsonPath("$.updated[*].index", contains(0, 1, 2, 3)))
+                .andExpect(jsonPath("$.updated[*].status", contains("UPDATED", "NOT_FOUND", "UPDATED", "UPDATED")))
+                .andExpect(jsonPath("$.deleted[*].status", contains("DELETED", "NOT_FOUND", "DELETED")))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode created = objectMapper.readTree(body).get("created");
+        for (int i : new int[]{0, 2, 3}) {
+            long id = created.get(i).get("id").asLong();
+            assertEquals("Bulk " + i, shards.get(ShardIds.shardOf(id))
+                    .queryForObject("SELECT title FROM todos WHERE id = ?", String.class, id));
+        }
+        for (Long id : ids.subList(0, 3)) {
+            assertEquals("Bulk update " + id, shards.get(ShardIds.shardOf(id))
+                    .queryForObject("SELECT title FROM todos WHERE id = ?", String.class, id));
+        }
+        assertEquals(0, count(shards.get(ShardIds.shardOf(ids.get(3))), ids.get(3)));
+        assertEquals(0, count(shards.get(ShardIds.shardOf(ids.get(4))), ids.get(4)));
+        // Six created one by one, three in bulk, two deleted
+        assertEquals(7, listIds("/api/v1/todos").size());
+    }
+
+    private List<Long> createTodos(int count) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String body = mockMvc.perform(post("/api/v1/todos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Sharded todo " + i + "x\"}"))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(body).get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static String update(long id) {
+        return "{\"id\":" + id + ",\"title\":\"Bulk update " + id + "\",\"completed\":true}";
+    }
+
+    private List<Long> listIds(String uri, Object... uriVariables) throws Exception {
+        String body = mockMvc.perform(get(uri, uriVariables).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(body).forEach(todo -> ids.add(todo.get("id").asLong()));
+        return ids;
+    }
+
+    private static int count(JdbcTemplate shard, long id) {
+        return shard.queryForObject("SELECT COUNT(*) FROM todos WHERE id = ?", Integer.class, id);
+    }
+}
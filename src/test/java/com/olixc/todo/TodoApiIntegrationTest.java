@@ -1,18 +1,29 @@
 package com.olixc.todo;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olixc.todo.config.CacheConfig;
+import com.olixc.todo.dto.BulkRequest;
 import com.olixc.todo.entity.Todo;
 import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.search.TitleSearchIndex;
+import com.olixc.todo.service.TodoService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.time.LocalDateTime;
@@ -39,6 +50,18 @@ class TodoApiIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TitleSearchIndex titleSearchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private MockMvc mockMvc;
 
     @BeforeEach
@@ -47,7 +70,15 @@ class TodoApiIntegrationTest {
         todoRepository.deleteAll(); // Clean up before each test
     }
 
+    // Tests that commit their writes leave nothing behind for other test classes
+    @AfterEach
+    void tearDown() {
+        todoRepository.deleteAll();
+    }
+
+    // Search is answered from the index, which follows committed writes only
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     void fullCrudWorkflow_ShouldWorkEndToEnd() throws Exception {
         // 1. Create a new todo
         Todo newTodo = new Todo();
@@ -163,7 +194,9 @@ class TodoApiIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    // Search is answered from the index, which follows committed writes only
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     void createMultipleTodos_AndTestFiltering() throws Exception {
         // Create multiple todos with different completion statuses
         Todo todo1 = new Todo();
@@ -223,6 +256,23 @@ class TodoApiIntegrationTest {
                 .andExpect(jsonPath("$[*].title", hasItems("Learn Spring Boot", "Spring Security")));
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void search_ShouldNotFindWritesThatRolledBack() throws Exception {
+        // Given
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            todoService.createTodo(new Todo("Rolled back write"));
+            status.setRollbackOnly();
+        });
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/search")
+                        .param("title", "Rolled back"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        assertTrue(titleSearchIndex.search("Rolled back").orElseThrow().isEmpty());
+    }
+
     @Test
     void handleInvalidRequests_ShouldReturnAppropriateErrors() throws Exception {
         // Test getting non-existent todo
@@ -248,4 +298,275 @@ class TodoApiIntegrationTest {
                         .content("invalid json"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void actuator_ShouldExposeOnlyReadOnlyEndpointsOnTheApiPort() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+
+        for (String endpoint : List.of("caches", "metrics", "loggers", "sqltrace")) {
+            mockMvc.perform(get("/actuator/" + endpoint))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Test
+    void bulkRequest_ShouldCreateUpdateAndDeleteWithPerItemResults() throws Exception {
+        // Given
+        Todo existing = todoRepository.save(new Todo("Existing todo", "Will be updated"));
+        Todo doomed = todoRepository.save(new Todo("Doomed todo"));
+
+        List<Todo> creates = new java.util.ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            creates.add(new Todo("Bulk todo " + i));
+        }
+        creates.add(new Todo());
+
+        Todo update = new Todo("Existing todo (bulk)", "Updated in bulk");
+        update.setId(existing.getId());
+        update.setCompleted(true);
+        Todo missing = new Todo("Missing");
+        missing.setId(999_999L);
+
+        BulkRequest request = new BulkRequest(creates, List.of(update, missing), List.of(doomed.getId(), 999_999L));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", hasSize(121)))
+                .andExpect(jsonPath("$.created[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.created[0].id").isNotEmpty())
+                .andExpect(jsonPath("$.created[120].status").value("INVALID"))
+                .andExpect(jsonPath("$.updated[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.updated[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.deleted[0].status").value("DELETED"))
+                .andExpect(jsonPath("$.deleted[1].status").value("NOT_FOUND"));
+
+        assertEquals(121, todoRepository.count());
+        assertFalse(todoRepository.existsById(doomed.getId()));
+        Todo updated = todoRepository.findById(existing.getId()).orElseThrow();
+        assertEquals("Existing todo (bulk)", updated.getTitle());
+        assertTrue(updated.isCompleted());
+    }
+
+    @Test
+    void getTodoById_ShouldBeCachedUntilUpdatedOrDeleted() throws Exception {
+        // Given
+        Todo todo = todoRepository.save(new Todo("Cached todo"));
+        Cache cache = cacheManager.getCache(CacheConfig.TODO_CACHE);
+        assertNotNull(cache);
+
+        // When: a read fills the cache
+        mockMvc.perform(get("/api/v1/todos/" + todo.getId()))
+                .andExpect(status().isOk());
+
+        // Then
+        assertNotNull(cache.get(todo.getId()));
+
+        // When: an update evicts it
+        Todo updateData = new Todo("Cached todo (updated)");
+        mockMvc.perform(put("/api/v1/todos/" + todo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateData)))
+                .andExpect(status().isOk());
+        assertNull(cache.get(todo.getId()));
+
+        // And the next read sees the new title
+        mockMvc.perform(get("/api/v1/todos/" + todo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Cached todo (updated)"));
+
+        // When: a delete evicts it
+        mockMvc.perform(delete("/api/v1/todos/" + todo.getId()))
+                .andExpect(status().isNoContent());
+        assertNull(cache.get(todo.getId()));
+        mockMvc.perform(get("/api/v1/todos/" + todo.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void multiGet_ShouldReturnTodosInRequestOrderAndFillTheCache() throws Exception {
+        // Given
+        Todo first = todoRepository.save(new Todo("First"));
+        Todo second = todoRepository.save(new Todo("Second"));
+        long missingId = second.getId() + 1000;
+        Cache cache = cacheManager.getCache(CacheConfig.TODO_CACHE);
+        assertNotNull(cache);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos").param("ids", second.getId() + "," + missingId + "," + first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos.length()").value(2))
+                .andExpect(jsonPath("$.todos[0].title").value("Second"))
+                .andExpect(jsonPath("$.todos[1].title").value("First"))
+                .andExpect(jsonPath("$.missing[0]").value(missingId));
+        assertNotNull(cache.get(first.getId()));
+        assertNotNull(cache.get(second.getId()));
+
+        // The POST variant answers the same way
+        mockMvc.perform(post("/api/v1/todos/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + first.getId() + ", " + missingId + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos[0].title").value("First"))
+                .andExpect(jsonPath("$.missing[0]").value(missingId));
+    }
+
+    @Test
+    void conditionalGet_ShouldReturnNotModifiedUntilTheTodoChanges() throws Exception {
+        // Given
+        Todo todo = todoRepository.save(new Todo("Polled todo"));
+        String etag = mockMvc.perform(get("/api/v1/todos/" + todo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then: an unchanged todo is not sent again
+        mockMvc.perform(get("/api/v1/todos/" + todo.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        // When: the todo is updated
+        mockMvc.perform(put("/api/v1/todos/" + todo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Todo("Polled todo (updated)"))))
+                .andExpect(status().isOk());
+
+        // Then: the old tag no longer matches
+        mockMvc.perform(get("/api/v1/todos/" + todo.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.title").value("Polled todo (updated)"));
+    }
+
+    @Test
+    void conditionalListGet_ShouldReturnNotModifiedUntilTheListChanges() throws Exception {
+        // Given
+        todoRepository.save(new Todo("First"));
+        String etag = mockMvc.perform(get("/api/v1/todos/pending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/pending").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // When: a todo is added (list versions follow writes made through the service)
+        mockMvc.perform(post("/api/v1/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Todo("Second"))))
+                .andExpect(status().isCreated());
+
+        // Then
+        mockMvc.perform(get("/api/v1/todos/pending").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void patchTodo_ShouldMergeFieldsAndRejectStaleVersions() throws Exception {
+        // Given
+        Todo todo = new Todo("Patched todo", "Keep me");
+        todo = todoRepository.saveAndFlush(todo);
+        String etag = mockMvc.perform(get("/api/v1/todos/" + todo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When: only completed is sent
+        String newEtag = mockMvc.perform(patch("/api/v1/todos/" + todo.getId())
+                        .contentType("application/merge-patch+json")
+                        .header("If-Match", etag)
+                        .content("{\"completed\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Patched todo"))
+                .andExpect(jsonPath("$.description").value("Keep me"))
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, newEtag);
+
+        // Then: the old tag is rejected
+        mockMvc.perform(patch("/api/v1/todos/" + todo.getId())
+                        .contentType("application/merge-patch+json")
+                        .header("If-Match", etag)
+                        .content("{\"description\": null}"))
+                .andExpect(status().isPreconditionFailed());
+
+        // And a null member removes the description
+        mockMvc.perform(patch("/api/v1/todos/" + todo.getId())
+                        .contentType("application/merge-patch+json")
+                        .header("If-Match", newEtag)
+                        .content("{\"description\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value(nullValue()));
+
+        mockMvc.perform(patch("/api/v1/todos/999999")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"completed\": false}"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Feed events are published after commit, so this test commits its writes
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void changeFeed_ShouldStreamCommittedChangesAndResumeFromLastEventId() throws Exception {
+        try {
+            // Given
+            MvcResult stream = mockMvc.perform(get("/api/v1/todos/changes"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // When
+            mockMvc.perform(post("/api/v1/todos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new Todo("First change"))))
+                    .andExpect(status().isCreated());
+            mockMvc.perform(post("/api/v1/todos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new Todo("Second change"))))
+                    .andExpect(status().isCreated());
+
+            // Then
+            String events = awaitContent(stream, "Second change");
+            assertTrue(events.contains("\"type\":\"CREATED\""));
+            assertTrue(events.indexOf("First change") < events.indexOf("Second change"));
+            String firstId = events.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+
+            // When: a client reconnects after the first change
+            MvcResult resumed = mockMvc.perform(get("/api/v1/todos/changes").header("Last-Event-ID", firstId))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then: it receives only what it missed
+            String missed = awaitContent(resumed, "Second change");
+            assertFalse(missed.contains("First change"));
+
+            // When: the id is unknown
+            MvcResult reset = mockMvc.perform(get("/api/v1/todos/changes").header("Last-Event-ID", "1"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            assertTrue(awaitContent(reset, "event:reset").contains("event:reset"));
+        } finally {
+            todoRepository.deleteAll();
+        }
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), "Expected " + expected + " in stream: " + content);
+        return content;
+    }
 }
@@ -1,25 +1,46 @@
 package com.olixc.todo.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.olixc.todo.dto.BulkItemResult;
+import com.olixc.todo.dto.BulkRequest;
+import com.olixc.todo.dto.BulkResponse;
+import com.olixc.todo.dto.CursorPage;
+import com.olixc.todo.dto.TodoBatch;
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.dto.TodoPatch;
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.dto.TodoView;
 import com.olixc.todo.entity.Todo;
+import com.olixc.todo.feed.TodoChangeFeed;
 import com.olixc.todo.service.TodoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +53,12 @@ class TodoControllerTest {
     @Mock
     private TodoService todoService;
 
+    @Mock
+    private TodoChangeFeed todoChangeFeed;
+
+    @Spy
+    private ObjectMapper controllerObjectMapper = JsonMapper.builder().findAndAddModules().build();
+
     @InjectMocks
     private TodoController todoController;
 
@@ -39,11 +66,12 @@ class TodoControllerTest {
 
     private Todo testTodo;
     private List<Todo> testTodos;
+    private TodoListVersion listVersion;
 
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        mockMvc = MockMvcBuilders.standaloneSetup(todoController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(todoController).setControllerAdvice(new VaryByAcceptAdvice()).build();
         
         testTodo = new Todo();
         testTodo.setId(1L);
@@ -52,6 +80,7 @@ class TodoControllerTest {
         testTodo.setCompleted(false);
         testTodo.setCreatedAt(LocalDateTime.now());
         testTodo.setUpdatedAt(LocalDateTime.now());
+        testTodo.setVersion(3L);
 
         Todo completedTodo = new Todo();
         completedTodo.setId(2L);
@@ -62,12 +91,14 @@ class TodoControllerTest {
         completedTodo.setUpdatedAt(LocalDateTime.now());
 
         testTodos = Arrays.asList(testTodo, completedTodo);
+        listVersion = new TodoListVersion(2, 2L, completedTodo.getUpdatedAt());
     }
 
     @Test
     void getAllTodos_ShouldReturnAllTodos() throws Exception {
         // Given
-        when(todoService.getAllTodos()).thenReturn(testTodos);
+        when(todoService.getListVersion()).thenReturn(listVersion);
+        when(todoService.getAllTodoViews()).thenReturn(views(testTodos));
 
         // When & Then
         mockMvc.perform(get("/api/v1/todos"))
@@ -80,7 +111,30 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].title").value("Completed Todo"));
 
-        verify(todoService, times(1)).getAllTodos();
+        verify(todoService, times(1)).getAllTodoViews();
+    }
+
+    @Test
+    void streamChanges_ShouldResumeFromLastEventId() throws Exception {
+        // Given
+        when(todoChangeFeed.subscribe(42L)).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/changes").header("Last-Event-ID", "42"))
+                .andExpect(request().asyncStarted());
+
+        verify(todoChangeFeed, times(1)).subscribe(42L);
+    }
+
+    @Test
+    void streamChanges_WhenSubscriberLimitIsReached_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        when(todoChangeFeed.subscribe(null)).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/changes"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
     }
 
     @Test
@@ -100,6 +154,166 @@ class TodoControllerTest {
         verify(todoService, times(1)).getTodoById(1L);
     }
 
+    @Test
+    void getTodoById_WhenETagMatches_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        // Given
+        String etag = TodoETags.of(testTodo);
+        when(todoService.getTodoVersion(1L)).thenReturn(Optional.of(testTodo.getVersion()));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        verify(todoService, never()).getTodoById(anyLong());
+    }
+
+    @Test
+    void getTodoById_WhenETagIsStale_ShouldReturnTodoWithCurrentETag() throws Exception {
+        // Given
+        when(todoService.getTodoVersion(1L)).thenReturn(Optional.of(testTodo.getVersion()));
+        when(todoService.getTodoById(1L)).thenReturn(Optional.of(testTodo));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/1").header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", TodoETags.of(testTodo)))
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void getTodoById_ShouldTagEachFormatSeparately() throws Exception {
+        // Given
+        when(todoService.getTodoVersion(1L)).thenReturn(Optional.of(testTodo.getVersion()));
+        when(todoService.getTodoById(1L)).thenReturn(Optional.of(testTodo));
+        String jsonETag = TodoETags.of(testTodo);
+        String cborETag = TodoETags.of(testTodo, ResponseFormats.CBOR);
+
+        // When & Then: a copy held as JSON does not revalidate a CBOR request
+        mockMvc.perform(get("/api/v1/todos/1").accept("application/cbor").header("If-None-Match", jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("ETag", cborETag))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+
+        mockMvc.perform(get("/api/v1/todos/1").accept("application/cbor").header("If-None-Match", cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+
+        mockMvc.perform(get("/api/v1/todos/1").accept("application/cbor;q=0.5", "application/json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", jsonETag));
+
+        mockMvc.perform(get("/api/v1/todos/1").accept(MediaType.TEXT_HTML))
+                .andExpect(status().isNotAcceptable());
+
+        assertEquals(testTodo.getVersion(), TodoETags.expectedVersion(cborETag, 1L));
+    }
+
+    @Test
+    void getStats_ShouldVaryByAccept() throws Exception {
+        // Given
+        when(todoService.getStats()).thenReturn(new TodoStats(2, 1, 1));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/stats"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void getTodosByIds_ShouldReturnTodosInRequestOrderAndMissingIds() throws Exception {
+        // Given
+        when(todoService.getTodosByIds(List.of(2L, 1L, 999L))).thenReturn(new TodoBatch(List.of(testTodos.get(1), testTodo), List.of(999L)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos").param("ids", "2,1,999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos[0].id").value(2))
+                .andExpect(jsonPath("$.todos[1].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(999));
+
+        verify(todoService, never()).getAllTodoViews();
+    }
+
+    @Test
+    void getTodosByIdsPost_ShouldReadIdsFromBody() throws Exception {
+        // Given
+        when(todoService.getTodosByIds(List.of(1L))).thenReturn(new TodoBatch(List.of(testTodo), List.of()));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/todos/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos[0].title").value("Test Todo"))
+                .andExpect(jsonPath("$.missing").isEmpty());
+    }
+
+    @Test
+    void getTodosByIds_WithTooManyIds_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(todoService.getTodosByIds(any())).thenThrow(new IllegalArgumentException("At most 1000 ids can be fetched at once"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/todos/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("At most 1000 ids can be fetched at once"));
+    }
+
+    @Test
+    void getAllTodos_WithColumnarLayout_ShouldReturnOneArrayPerField() throws Exception {
+        // Given
+        when(todoService.getListVersion()).thenReturn(listVersion);
+        when(todoService.getAllTodoViews()).thenReturn(views(testTodos));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos").param("layout", "columnar"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", TodoETags.weak(TodoETags.of(listVersion))))
+                .andExpect(jsonPath("$.id[0]").value(1))
+                .andExpect(jsonPath("$.id[1]").value(2))
+                .andExpect(jsonPath("$.title[1]").value("Completed Todo"))
+                .andExpect(jsonPath("$.completed[0]").value(false))
+                .andExpect(jsonPath("$.completed[1]").value(true))
+                .andExpect(jsonPath("$.createdAt.length()").value(2))
+                .andExpect(jsonPath("$.version.length()").value(2));
+    }
+
+    @Test
+    void getPendingTodos_WhenCborIsAccepted_ShouldReturnCbor() throws Exception {
+        // Given
+        when(todoService.getListVersion(false)).thenReturn(listVersion);
+        when(todoService.getPendingTodoViews()).thenReturn(views(List.of(testTodo)));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/todos/pending").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn();
+
+        // Then
+        JsonNode body = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals(1, body.size());
+        assertEquals("Test Todo", body.get(0).get("title").asText());
+    }
+
+    @Test
+    void getAllTodos_WhenETagMatches_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        // Given
+        when(todoService.getListVersion()).thenReturn(listVersion);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos").header("If-None-Match", "W/" + TodoETags.of(listVersion)))
+                .andExpect(status().isNotModified());
+
+        verify(todoService, never()).getAllTodoViews();
+    }
+
     @Test
     void getTodoById_WhenTodoDoesNotExist_ShouldReturnNotFound() throws Exception {
         // Given
@@ -192,6 +406,50 @@ class TodoControllerTest {
         verify(todoService, times(1)).updateTodo(eq(999L), any(Todo.class));
     }
 
+    @Test
+    void patchTodo_ShouldApplyMergePatchWithExpectedVersion() throws Exception {
+        // Given
+        TodoPatch patch = new TodoPatch(null, false, null, true);
+        when(todoService.patchTodo(1L, patch, 3L)).thenReturn(testTodo);
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/todos/1")
+                        .contentType(TodoController.MERGE_PATCH_VALUE)
+                        .header("If-Match", TodoETags.of(testTodo))
+                        .content("{\"completed\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", TodoETags.of(testTodo)))
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(todoService, times(1)).patchTodo(1L, patch, 3L);
+    }
+
+    @Test
+    void patchTodo_WhenVersionIsStale_ShouldReturnPreconditionFailed() throws Exception {
+        // Given
+        when(todoService.patchTodo(eq(1L), any(TodoPatch.class), eq(2L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Todo.class, 1L));
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/todos/1")
+                        .contentType(TodoController.MERGE_PATCH_VALUE)
+                        .header("If-Match", "\"1-2\"")
+                        .content("{\"description\": null}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchTodo_WhenMemberIsNotPatchable_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/v1/todos/1")
+                        .contentType(TodoController.MERGE_PATCH_VALUE)
+                        .content("{\"title\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("title must be a string"));
+
+        verifyNoInteractions(todoService);
+    }
+
     @Test
     void deleteTodo_WhenTodoExists_ShouldDeleteAndReturnNoContent() throws Exception {
         // Given
@@ -220,7 +478,8 @@ class TodoControllerTest {
     void getCompletedTodos_ShouldReturnCompletedTodos() throws Exception {
         // Given
         List<Todo> completedTodos = Arrays.asList(testTodos.get(1)); // Only the completed one
-        when(todoService.getCompletedTodos()).thenReturn(completedTodos);
+        when(todoService.getListVersion(true)).thenReturn(listVersion);
+        when(todoService.getCompletedTodoViews()).thenReturn(views(completedTodos));
 
         // When & Then
         mockMvc.perform(get("/api/v1/todos/completed"))
@@ -230,14 +489,15 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].completed").value(true));
 
-        verify(todoService, times(1)).getCompletedTodos();
+        verify(todoService, times(1)).getCompletedTodoViews();
     }
 
     @Test
     void getPendingTodos_ShouldReturnPendingTodos() throws Exception {
         // Given
         List<Todo> pendingTodos = Arrays.asList(testTodos.get(0)); // Only the pending one
-        when(todoService.getPendingTodos()).thenReturn(pendingTodos);
+        when(todoService.getListVersion(false)).thenReturn(listVersion);
+        when(todoService.getPendingTodoViews()).thenReturn(views(pendingTodos));
 
         // When & Then
         mockMvc.perform(get("/api/v1/todos/pending"))
@@ -247,14 +507,15 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].completed").value(false));
 
-        verify(todoService, times(1)).getPendingTodos();
+        verify(todoService, times(1)).getPendingTodoViews();
     }
 
     @Test
     void searchTodosByTitle_ShouldReturnMatchingTodos() throws Exception {
         // Given
         List<Todo> searchResults = Arrays.asList(testTodo);
-        when(todoService.searchTodosByTitle("Test")).thenReturn(searchResults);
+        when(todoService.getListVersion()).thenReturn(listVersion);
+        when(todoService.searchTodoViewsByTitle("Test")).thenReturn(views(searchResults));
 
         // When & Then
         mockMvc.perform(get("/api/v1/todos/search")
@@ -265,6 +526,124 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].title").value("Test Todo"));
 
-        verify(todoService, times(1)).searchTodosByTitle("Test");
+        verify(todoService, times(1)).searchTodoViewsByTitle("Test");
+    }
+
+    @Test
+    void getTodosPage_ShouldReturnItemsAndNextCursor() throws Exception {
+        // Given
+        String next = CursorPage.encodeCursor(1L);
+        when(todoService.getTodosPage(null, 1)).thenReturn(new CursorPage<>(List.of(testTodo), next));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.next").value(next));
+
+        verify(todoService, times(1)).getTodosPage(null, 1);
+        verify(todoService, never()).getAllTodoViews();
+    }
+
+    @Test
+    void searchTodosByTitlePage_ShouldPassCursorThrough() throws Exception {
+        // Given
+        String cursor = CursorPage.encodeCursor(1L);
+        when(todoService.searchTodosByTitlePage("Todo", cursor, 20))
+                .thenReturn(new CursorPage<>(List.of(testTodos.get(1)), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/search")
+                        .param("title", "Todo")
+                        .param("limit", "20")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void getTodosPage_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(todoService.getTodosPage("garbage", 10)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos").param("limit", "10").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportTodos_ShouldStreamNewlineDelimitedJson() throws Exception {
+        // Given
+        when(todoService.exportTodos(any())).thenAnswer(invocation -> {
+            Consumer<Todo> consumer = invocation.getArgument(0);
+            testTodos.forEach(consumer);
+            return (long) testTodos.size();
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/todos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TodoController.NDJSON_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Test Todo", objectMapper.readTree(lines[0]).get("title").asText());
+        assertEquals("Completed Todo", objectMapper.readTree(lines[1]).get("title").asText());
+        verify(todoService, times(1)).exportTodos(any());
+    }
+
+    @Test
+    void bulkTodos_ShouldReturnPerItemResults() throws Exception {
+        // Given
+        BulkResponse response = new BulkResponse(
+                List.of(BulkItemResult.of(0, 3L, BulkItemResult.Status.CREATED)),
+                List.of(BulkItemResult.of(0, 999L, BulkItemResult.Status.NOT_FOUND)),
+                List.of());
+        when(todoService.bulkApply(any(BulkRequest.class))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"create\":[{\"title\":\"New Todo\"}],\"update\":[{\"id\":999,\"title\":\"x\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created[0].id").value(3))
+                .andExpect(jsonPath("$.created[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.updated[0].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.deleted").isEmpty());
+
+        verify(todoService, times(1)).bulkApply(any(BulkRequest.class));
+    }
+
+    @Test
+    void getStats_ShouldReturnCounts() throws Exception {
+        // Given
+        when(todoService.getStats()).thenReturn(new TodoStats(3, 1, 2));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/todos/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.completed").value(1))
+                .andExpect(jsonPath("$.pending").value(2));
+
+        verify(todoService, times(1)).getStats();
+        verify(todoService, never()).getTodoById(anyLong());
+    }
+
+    private static List<TodoView> views(List<Todo> todos) {
+        return todos.stream().map(TodoView::of).toList();
     }
 }
@@ -0,0 +1,57 @@
+package com.olixc.todo.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.olixc.todo.entity.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoViewTest {
+
+    // Configured like Spring Boot's ObjectMapper
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void serialize_ShouldMatchTodo() throws Exception {
+        // Given
+        Todo todo = new Todo("Title", "Description");
+        todo.setId(42L);
+        todo.setCompleted(true);
+        todo.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        todo.setUpdatedAt(LocalDateTime.of(2024, 1, 3, 4, 5, 6));
+        todo.setVersion(7L);
+
+        // When / Then: list responses carry the same fields, version included, as GET /{id}
+        assertEquals(objectMapper.valueToTree(todo), objectMapper.valueToTree(TodoView.of(todo)));
+        assertEquals(7, objectMapper.valueToTree(TodoView.of(todo)).get("version").asInt());
+    }
+
+    @Test
+    void columns_ShouldHaveOneArrayPerTodoField() {
+        // Given
+        Todo todo = new Todo("Title");
+        todo.setId(42L);
+        todo.setVersion(3L);
+
+        // When
+        TodoColumns columns = TodoColumns.of(List.of(TodoView.of(todo)));
+
+        // Then
+        assertEquals(fieldNames(objectMapper.valueToTree(todo)), fieldNames(objectMapper.valueToTree(columns)));
+        assertEquals(List.of(3L), columns.version());
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        return node.properties().stream().map(Map.Entry::getKey).sorted().toList();
+    }
+}
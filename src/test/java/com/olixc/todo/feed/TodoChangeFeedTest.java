@@ -0,0 +1,89 @@
+package com.olixc.todo.feed;
+
+import com.olixc.todo.dto.TodoChange;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoChangeFeedTest {
+
+    private TodoChangeFeed todoChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        todoChangeFeed = new TodoChangeFeed();
+        ReflectionTestUtils.setField(todoChangeFeed, "bufferSize", 3);
+        ReflectionTestUtils.setField(todoChangeFeed, "maxSubscribers", 1);
+        ReflectionTestUtils.setField(todoChangeFeed, "timeout", Duration.ofMinutes(1));
+        todoChangeFeed.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoChangeFeed.close();
+    }
+
+    @Test
+    void since_ShouldReturnChangesAfterSequenceInOrder() {
+        // Given
+        long start = todoChangeFeed.lastSequence();
+        todoChangeFeed.onTodoChanged(TodoChangedEvent.created(todo(1L, "One")));
+        todoChangeFeed.onTodoChanged(TodoChangedEvent.deleted(1L, false));
+
+        // When
+        List<TodoChange> changes = todoChangeFeed.since(start, 10).orElseThrow();
+
+        // Then
+        assertEquals(2, changes.size());
+        assertEquals(start + 1, changes.get(0).seq());
+        assertEquals(TodoChangedEvent.Type.CREATED, changes.get(0).type());
+        assertEquals("One", changes.get(0).todo().title());
+        assertEquals(TodoChangedEvent.Type.DELETED, changes.get(1).type());
+        assertNull(changes.get(1).todo());
+        assertEquals(List.of(changes.get(1)), todoChangeFeed.since(start + 1, 10).orElseThrow());
+        assertEquals(List.of(), todoChangeFeed.since(start + 2, 10).orElseThrow());
+    }
+
+    @Test
+    void since_WhenChangesWereEvicted_ShouldBeEmpty() {
+        // Given
+        long start = todoChangeFeed.lastSequence();
+        for (long id = 1; id <= 4; id++) {
+            todoChangeFeed.onTodoChanged(TodoChangedEvent.created(todo(id, "Todo " + id)));
+        }
+
+        // When & Then: the ring holds the last three changes only
+        assertTrue(todoChangeFeed.since(start, 10).isEmpty());
+        assertEquals(3, todoChangeFeed.since(start + 1, 10).orElseThrow().size());
+        assertEquals(1, todoChangeFeed.since(start + 1, 1).orElseThrow().size());
+    }
+
+    @Test
+    void since_WhenSequenceWasNeverIssued_ShouldBeEmpty() {
+        // When & Then
+        assertTrue(todoChangeFeed.since(todoChangeFeed.lastSequence() + 1, 10).isEmpty());
+        assertTrue(todoChangeFeed.since(1L, 10).isEmpty());
+    }
+
+    @Test
+    void subscribe_WhenLimitIsReached_ShouldRefuse() {
+        // When & Then
+        assertNotNull(todoChangeFeed.subscribe(null));
+        assertNull(todoChangeFeed.subscribe(null));
+        assertEquals(1, todoChangeFeed.subscriberCount());
+    }
+
+    private static Todo todo(Long id, String title) {
+        Todo todo = new Todo(title);
+        todo.setId(id);
+        return todo;
+    }
+}
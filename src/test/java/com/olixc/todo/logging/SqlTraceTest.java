@@ -0,0 +1,61 @@
+package com.olixc.todo.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlTraceTest {
+
+    private SqlTrace sqlTrace;
+
+    @BeforeEach
+    void setUp() {
+        sqlTrace = new SqlTrace();
+        ReflectionTestUtils.setField(sqlTrace, "sampleRate", 0.0);
+        ReflectionTestUtils.setField(sqlTrace, "slowThreshold", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(sqlTrace, "maxStatements", 2);
+    }
+
+    @Test
+    void inspect_ShouldCollectStatementsOnlyWhileTracing() {
+        // Given
+        sqlTrace.inspect("select 0");
+        sqlTrace.begin();
+
+        // When
+        String returned = sqlTrace.inspect("select 1");
+        sqlTrace.inspect("select 2");
+        sqlTrace.inspect("select 3");
+        SqlTrace.Statements statements = sqlTrace.end();
+        sqlTrace.inspect("select 4");
+
+        // Then
+        assertEquals("select 1", returned);
+        assertEquals(3, statements.count());
+        assertEquals(List.of("select 1", "select 2"), statements.sql());
+        assertEquals(0, sqlTrace.end().count());
+    }
+
+    @Test
+    void shouldLog_ShouldPickSlowRequestsAndSample() {
+        // Slow requests are always logged, fast ones only when sampled
+        assertTrue(sqlTrace.shouldLog(Duration.ofMillis(500)));
+        assertFalse(sqlTrace.shouldLog(Duration.ofMillis(499)));
+
+        sqlTrace.setSampleRate(1.0);
+        assertTrue(sqlTrace.shouldLog(Duration.ZERO));
+    }
+
+    @Test
+    void setters_ShouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> sqlTrace.setSampleRate(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sqlTrace.setSampleRate(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> sqlTrace.setSlowThreshold(Duration.ofMillis(-1)));
+        assertEquals(0.0, sqlTrace.getSampleRate());
+    }
+}
@@ -0,0 +1,153 @@
+package com.olixc.todo.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new RateLimiter(new RateLimitProperties("X-API-Key", Set.of("client-a", "client-b"), 1000, Duration.ofMinutes(10), 0, List.of(
+                new RateLimitProperties.Route("search", List.of("/api/v1/todos/search"), List.of("GET"), 0.1, 2),
+                new RateLimitProperties.Route("item", List.of("/api/v1/todos/*"), List.of("GET"), 1000, 1000))),
+                meterRegistry);
+        filter = new RateLimitFilter(rateLimiter);
+    }
+
+    @Test
+    void overLimit_ShouldGet429WithRetryAfter() throws Exception {
+        // Given
+        perform(get("/api/v1/todos/search", "client-a"));
+        perform(get("/api/v1/todos/search", "client-a"));
+
+        // When
+        MockHttpServletResponse response = perform(get("/api/v1/todos/search", "client-a"));
+
+        // Then
+        assertEquals(429, response.getStatus());
+        assertEquals("10", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"error\""));
+        assertEquals(1.0, meterRegistry.get("todo.rate-limit.rejected").tag("route", "search").tag("reason", "rate").counter().count());
+    }
+
+    @Test
+    void limits_ShouldBePerClientAndRoute() throws Exception {
+        // Given
+        perform(get("/api/v1/todos/search", "client-a"));
+        perform(get("/api/v1/todos/search", "client-a"));
+
+        // When / Then: other clients and cheaper routes are unaffected
+        assertEquals(200, perform(get("/api/v1/todos/search", "client-b")).getStatus());
+        assertEquals(200, perform(get("/api/v1/todos/42", "client-a")).getStatus());
+        assertEquals(429, perform(get("/api/v1/todos/search", "client-a")).getStatus());
+    }
+
+    @Test
+    void withoutClientHeader_ShouldLimitByRemoteAddress() throws Exception {
+        // Given
+        MockHttpServletRequest request = get("/api/v1/todos/search", null);
+        request.setRemoteAddr("10.0.0.1");
+        perform(request);
+        perform(request);
+
+        // When
+        MockHttpServletRequest other = get("/api/v1/todos/search", null);
+        other.setRemoteAddr("10.0.0.2");
+
+        // Then
+        assertEquals(429, perform(request).getStatus());
+        assertEquals(200, perform(other).getStatus());
+    }
+
+    @Test
+    void unknownApiKeys_ShouldBeLimitedByRemoteAddress() throws Exception {
+        // Given: a client sending a new key with every request
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = get("/api/v1/todos/search", "made-up-" + i);
+            request.setRemoteAddr("10.0.0.1");
+            perform(request);
+        }
+
+        // When
+        MockHttpServletRequest request = get("/api/v1/todos/search", "made-up-2");
+        request.setRemoteAddr("10.0.0.1");
+
+        // Then
+        assertEquals(429, perform(request).getStatus());
+    }
+
+    @Test
+    void evictIdleBuckets_ShouldKeepThrottledClients() throws Exception {
+        // Given
+        perform(get("/api/v1/todos/search", "client-a"));
+        perform(get("/api/v1/todos/search", "client-a"));
+
+        // When
+        rateLimiter.evictIdleBuckets();
+
+        // Then
+        assertEquals(429, perform(get("/api/v1/todos/search", "client-a")).getStatus());
+    }
+
+    @Test
+    void unmatchedRequests_ShouldNotBeLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, perform(get("/actuator/health", "client-a")).getStatus());
+        }
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/v1/todos/search");
+        assertEquals(200, perform(post).getStatus());
+    }
+
+    @Test
+    void overMaxInFlight_ShouldShedWith503() throws Exception {
+        // Given: the only permitted request is still running when the next one arrives
+        RateLimitFilter shedding = new RateLimitFilter(new RateLimiter(new RateLimitProperties(null, Set.of(), 1000, Duration.ofMinutes(10), 1, List.of(
+                new RateLimitProperties.Route("item", List.of("/api/v1/todos/*"), List.of(), 1000, 1000))), meterRegistry));
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain chain = (request, response) -> shedding.doFilter(get("/api/v1/todos/2", null), nested, new MockFilterChain());
+
+        // When
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        shedding.doFilter(get("/api/v1/todos/1", null), outer, chain);
+
+        // Then
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.getStatus());
+        assertEquals("1", nested.getHeader("Retry-After"));
+        assertEquals(200, perform(shedding, get("/api/v1/todos/3", null)).getStatus());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        return perform(filter, request);
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String path, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+}
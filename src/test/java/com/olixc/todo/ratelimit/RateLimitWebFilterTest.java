@@ -0,0 +1,84 @@
+package com.olixc.todo.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitWebFilterTest {
+
+    private RateLimiter rateLimiter;
+    private RateLimitWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(new RateLimitProperties("X-API-Key", Set.of("client-a"), 1000, Duration.ofMinutes(10), 0, List.of(
+                new RateLimitProperties.Route("search", List.of("/api/v1/todos/search", "/api/v2/todos/search"), List.of("GET"), 0.1, 2))),
+                new SimpleMeterRegistry());
+        filter = new RateLimitWebFilter(rateLimiter);
+    }
+
+    @Test
+    void overLimit_ShouldGet429WithRetryAfter() {
+        // Given
+        perform(get("/api/v2/todos/search"));
+        perform(get("/api/v2/todos/search"));
+
+        // When
+        MockServerWebExchange exchange = perform(get("/api/v2/todos/search"));
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertEquals("10", exchange.getResponse().getHeaders().getFirst("Retry-After"));
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("\"error\""));
+    }
+
+    @Test
+    void buckets_ShouldBeSharedWithTheServletApi() {
+        // Given: the client's budget was spent on /api/v1
+        RateLimitFilter servletFilter = new RateLimitFilter(rateLimiter);
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/todos/search");
+            request.setRemoteAddr("10.0.0.1");
+            assertDoesNotThrow(() -> servletFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain()));
+        }
+
+        // When
+        MockServerWebExchange exchange = perform(get("/api/v2/todos/search"));
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void unmatchedRequests_ShouldNotBeLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertNull(perform(get("/api/v2/todos/1")).getResponse().getStatusCode());
+        }
+    }
+
+    private MockServerWebExchange perform(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        WebFilterChain chain = served -> Mono.empty();
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private static MockServerHttpRequest get(String path) {
+        return MockServerHttpRequest.get(path).remoteAddress(new InetSocketAddress("10.0.0.1", 40000)).build();
+    }
+}
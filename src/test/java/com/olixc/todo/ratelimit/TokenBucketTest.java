@@ -0,0 +1,58 @@
+package com.olixc.todo.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    // 10 per second, burst of 3
+    private static final long INTERVAL = 100_000_000L;
+    private static final long TOLERANCE = 2 * INTERVAL;
+
+    @Test
+    void tryAcquire_ShouldAdmitBurstThenThrottle() {
+        // Given
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+
+        // When / Then
+        assertEquals(0, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+        assertEquals(0, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+        assertEquals(0, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+        assertEquals(INTERVAL, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillAtRate() {
+        // Given
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(now);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(now, INTERVAL, TOLERANCE);
+        }
+
+        // When / Then: one token per interval, never more than the burst
+        assertEquals(INTERVAL / 2, bucket.tryAcquire(now + INTERVAL / 2, INTERVAL, TOLERANCE));
+        assertEquals(0, bucket.tryAcquire(now + INTERVAL, INTERVAL, TOLERANCE));
+        assertTrue(bucket.tryAcquire(now + INTERVAL, INTERVAL, TOLERANCE) > 0);
+
+        long later = now + 60 * INTERVAL;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later, INTERVAL, TOLERANCE));
+        }
+        assertTrue(bucket.tryAcquire(later, INTERVAL, TOLERANCE) > 0);
+    }
+
+    @Test
+    void isFull_ShouldHoldUntilTakenTokensAreRefilled() {
+        // Given
+        TokenBucket bucket = new TokenBucket(0);
+        bucket.tryAcquire(0, INTERVAL, TOLERANCE);
+        bucket.tryAcquire(0, INTERVAL, TOLERANCE);
+
+        // Then
+        assertFalse(bucket.isFull(INTERVAL));
+        assertTrue(bucket.isFull(2 * INTERVAL));
+    }
+}
@@ -1,16 +1,24 @@
 package com.olixc.todo.repository;
 
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.dto.TodoStatus;
+import com.olixc.todo.dto.TodoUpdate;
+import com.olixc.todo.dto.TodoView;
 import com.olixc.todo.entity.Todo;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -255,4 +263,154 @@ class TodoRepositoryTest {
         assertTrue(pendingTodos.stream().anyMatch(todo -> "Learn Spring Boot".equals(todo.getTitle())));
         assertTrue(pendingTodos.stream().anyMatch(todo -> "Spring Security".equals(todo.getTitle())));
     }
+
+    @Test
+    void findByIdGreaterThanOrderByIdAsc_ShouldReturnKeysetPage() {
+        // When
+        List<Todo> firstPage = todoRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        List<Todo> secondPage = todoRepository.findByIdGreaterThanOrderByIdAsc(firstPage.get(1).getId(), Limit.of(2));
+
+        // Then
+        assertEquals(2, firstPage.size());
+        assertEquals("Learn Spring Boot", firstPage.get(0).getTitle());
+        assertEquals("Deploy to Kubernetes", firstPage.get(1).getTitle());
+        assertEquals(1, secondPage.size());
+        assertEquals("Spring Security", secondPage.get(0).getTitle());
+    }
+
+    @Test
+    void findByCompletedAndIdGreaterThanOrderByIdAsc_ShouldFilterAndOrder() {
+        // When
+        List<Todo> pendingTodos = todoRepository.findByCompletedAndIdGreaterThanOrderByIdAsc(false, testTodo1.getId(), Limit.of(10));
+
+        // Then
+        assertEquals(1, pendingTodos.size());
+        assertEquals("Spring Security", pendingTodos.get(0).getTitle());
+    }
+
+    @Test
+    void findByTitleContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc_ShouldFilterAndOrder() {
+        // When
+        List<Todo> springTodos = todoRepository.findByTitleContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc("spring", 0L, Limit.of(1));
+
+        // Then
+        assertEquals(1, springTodos.size());
+        assertEquals("Learn Spring Boot", springTodos.get(0).getTitle());
+    }
+
+    @Test
+    void streamAllByOrderByIdAsc_ShouldStreamTodosInIdOrder() {
+        // When
+        List<String> titles;
+        try (Stream<Todo> todos = todoRepository.streamAllByOrderByIdAsc()) {
+            titles = todos.map(Todo::getTitle).toList();
+        }
+
+        // Then
+        assertEquals(List.of("Learn Spring Boot", "Deploy to Kubernetes", "Spring Security"), titles);
+    }
+
+    @Test
+    void countByStatus_ShouldCountTotalAndCompletedInOneQuery() {
+        // When
+        TodoStats stats = todoRepository.countByStatus();
+
+        // Then
+        assertEquals(new TodoStats(3, 1, 2), stats);
+    }
+
+    @Test
+    void countByStatus_WhenEmpty_ShouldReturnZeros() {
+        // Given
+        todoRepository.deleteAllInBatch();
+
+        // When
+        TodoStats stats = todoRepository.countByStatus();
+
+        // Then
+        assertEquals(new TodoStats(0, 0, 0), stats);
+    }
+
+    @Test
+    void findStatusesByIds_ShouldReturnOnlyExistingIds() {
+        // When
+        List<TodoStatus> statuses = todoRepository.findStatusesByIds(List.of(testTodo2.getId(), 999L));
+
+        // Then
+        assertEquals(List.of(new TodoStatus(testTodo2.getId(), true)), statuses);
+    }
+
+    @Test
+    void findViewsByCompleted_ShouldProjectColumnsWithoutManagingEntities() {
+        // Given
+        entityManager.clear();
+
+        // When
+        List<TodoView> views = todoRepository.findViewsByCompleted(true);
+
+        // Then
+        assertEquals(1, views.size());
+        TodoView view = views.get(0);
+        assertEquals(testTodo2.getId(), view.id());
+        assertEquals("Deploy to Kubernetes", view.title());
+        assertEquals("Deploy the todo API to K8s cluster", view.description());
+        assertTrue(view.completed());
+        assertNotNull(view.createdAt());
+        assertEquals(testTodo2.getVersion(), view.version());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findViewsByTitleContainingIgnoreCase_ShouldMatchLikeEntityQuery() {
+        // When
+        List<TodoView> views = todoRepository.findViewsByTitleContainingIgnoreCase("spring");
+
+        // Then
+        assertEquals(2, views.size());
+        assertTrue(views.stream().allMatch(view -> view.title().toLowerCase().contains("spring")));
+    }
+
+    @Test
+    void findListVersionByCompleted_ShouldAggregateCountMaxIdAndLatestUpdate() {
+        // When
+        TodoListVersion version = todoRepository.findListVersionByCompleted(false);
+
+        // Then
+        assertEquals(2, version.count());
+        assertEquals(testTodo3.getId(), version.maxId());
+        assertNotNull(version.maxUpdatedAt());
+        assertEquals(Optional.of(0L), todoRepository.findVersionById(testTodo3.getId()));
+        assertTrue(todoRepository.findVersionById(999L).isEmpty());
+    }
+
+    @Test
+    void updateTodo_ShouldReturnStoredRowAndPreviousStatus() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+
+        // When
+        Optional<TodoUpdate> updated = todoRepository.updateTodo(testTodo1.getId(), "Learn Spring Boot 3", null, true, now);
+        Optional<TodoUpdate> missing = todoRepository.updateTodo(999L, "Nothing", null, false, now);
+
+        // Then
+        assertTrue(missing.isEmpty());
+        assertFalse(updated.orElseThrow().previousCompleted());
+        Todo returned = updated.get().todo();
+        assertEquals(1L, returned.getVersion());
+        assertEquals(now, returned.getUpdatedAt());
+        Todo reloaded = todoRepository.findById(testTodo1.getId()).orElseThrow();
+        assertEquals("Learn Spring Boot 3", reloaded.getTitle());
+        assertEquals(1L, reloaded.getVersion());
+        assertEquals(reloaded.getCreatedAt(), returned.getCreatedAt());
+        assertNull(reloaded.getDescription());
+        assertTrue(reloaded.isCompleted());
+    }
+
+    @Test
+    void deleteTodoById_ShouldReturnPreviousStatus() {
+        // When & Then
+        assertEquals(Optional.of(true), todoRepository.deleteTodoById(testTodo2.getId()));
+        assertEquals(Optional.empty(), todoRepository.deleteTodoById(testTodo2.getId()));
+        assertFalse(todoRepository.existsById(testTodo2.getId()));
+    }
 }
@@ -0,0 +1,57 @@
+package com.olixc.todo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The schema comes from the Flyway migrations and the status queries are served by an index
+@DataJpaTest
+@ActiveProfiles("test")
+class TodoSchemaTest {
+
+    private static final String COMPLETED_INDEX = "TODOS_COMPLETED_ID_IDX";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_ShouldAllBeApplied() {
+        // When
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL AND \"success\" ORDER BY \"installed_rank\"", String.class);
+
+        // Then
+        assertEquals(List.of("1", "2", "4"), versions);
+    }
+
+    @Test
+    void findByCompleted_ShouldUseCompletedIndex() {
+        assertUsesCompletedIndex("SELECT id, title FROM todos WHERE completed = FALSE");
+    }
+
+    @Test
+    void completedKeysetPage_ShouldSeekInCompletedIndex() {
+        String plan = assertUsesCompletedIndex(
+                "SELECT id, title FROM todos WHERE completed = TRUE AND id > 100 ORDER BY id FETCH FIRST 51 ROWS ONLY");
+        // Both the status and the id bound are index conditions, not filters on a scan
+        assertTrue(plan.contains("COMPLETED = TRUE\n        AND ID > "), plan);
+    }
+
+    @Test
+    void listVersionByCompleted_ShouldUseCompletedIndex() {
+        assertUsesCompletedIndex("SELECT count(*), max(id), max(updated_at) FROM todos WHERE completed = FALSE");
+    }
+
+    private String assertUsesCompletedIndex(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertNotNull(plan);
+        assertTrue(plan.contains(COMPLETED_INDEX), plan);
+        return plan;
+    }
+}
@@ -0,0 +1,106 @@
+package com.olixc.todo.search;
+
+import com.olixc.todo.dto.TodoTitle;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.sharding.TodoShards;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TitleSearchIndexTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Not sharded: every query runs directly
+    @Spy
+    private TodoShards todoShards = new TodoShards();
+
+    @InjectMocks
+    private TitleSearchIndex titleSearchIndex;
+
+    private void rebuildWith(TodoTitle... rows) {
+        when(todoRepository.streamTitlesByOrderByIdAsc()).thenReturn(Stream.of(rows));
+        titleSearchIndex.rebuild();
+    }
+
+    private void rebuildWithDefaultTitles() {
+        rebuildWith(
+                new TodoTitle(1L, "Learn Spring Boot"),
+                new TodoTitle(2L, "Deploy to Kubernetes"),
+                new TodoTitle(3L, "Spring Security"));
+    }
+
+    @Test
+    void search_BeforeRebuild_ShouldNotAnswer() {
+        assertEquals(Optional.empty(), titleSearchIndex.search("spring"));
+    }
+
+    @Test
+    void search_ShouldIntersectTrigramsCaseInsensitively() {
+        // Given
+        rebuildWithDefaultTitles();
+
+        // When & Then
+        assertEquals(List.of(1L, 3L), titleSearchIndex.search("SPRING").orElseThrow());
+        assertEquals(List.of(2L), titleSearchIndex.search("kube").orElseThrow());
+        assertEquals(List.of(), titleSearchIndex.search("nonexistent").orElseThrow());
+    }
+
+    @Test
+    void search_ShouldRejectCandidatesThatOnlyShareTrigrams() {
+        // Given: both titles contain every trigram of "abcd", only one contains "abcd"
+        rebuildWith(new TodoTitle(1L, "abc bcd"), new TodoTitle(2L, "xabcdx"));
+
+        // When
+        List<Long> hits = titleSearchIndex.search("abcd").orElseThrow();
+
+        // Then
+        assertEquals(List.of(2L), hits);
+    }
+
+    @Test
+    void search_WithShortQuery_ShouldLeaveItToTheDatabase() {
+        // Given
+        rebuildWithDefaultTitles();
+
+        // When & Then
+        assertTrue(titleSearchIndex.search("sp").isEmpty());
+    }
+
+    @Test
+    void onTodoChanged_ShouldKeepIndexCurrent() {
+        // Given
+        rebuildWithDefaultTitles();
+        Todo renamed = new Todo("Spring Data JPA");
+        renamed.setId(2L);
+        Todo created = new Todo("Springfield");
+        created.setId(4L);
+
+        // When
+        titleSearchIndex.onTodoChanged(TodoChangedEvent.updated(renamed, false));
+        titleSearchIndex.onTodoChanged(TodoChangedEvent.created(created));
+        titleSearchIndex.onTodoChanged(TodoChangedEvent.deleted(1L, false));
+
+        // Then
+        assertEquals(List.of(2L, 3L, 4L), titleSearchIndex.search("spring").orElseThrow());
+        assertEquals(List.of(), titleSearchIndex.search("kubernetes").orElseThrow());
+    }
+}
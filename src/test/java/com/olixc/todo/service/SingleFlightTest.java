@@ -0,0 +1,188 @@
+package com.olixc.todo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCalls_ShouldShareOneExecution() throws Exception {
+        // Given: a leader blocked in its call
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<String> follower1 = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+        Future<String> follower2 = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+        awaitCoalesced(2);
+        release.countDown();
+
+        // Then
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("value", follower1.get(5, TimeUnit.SECONDS));
+        assertEquals("value", follower2.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(1.0, count("executed"));
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void completedCall_ShouldNotBeReused() {
+        assertEquals("first", singleFlight.execute("key", () -> "first"));
+        assertEquals("second", singleFlight.execute("key", () -> "second"));
+        assertEquals(2.0, count("executed"));
+        assertEquals(0.0, count("coalesced"));
+    }
+
+    @Test
+    void failure_ShouldBePropagatedToWaitingCallers() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+        awaitCoalesced(1);
+
+        // When
+        release.countDown();
+
+        // Then
+        assertSame(failure, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals("recovered", singleFlight.execute("key", () -> "recovered"));
+    }
+
+    @Test
+    void interruptedFollower_ShouldStopWaitingWithoutCancellingTheCall() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+        awaitCoalesced(1);
+
+        // When
+        follower.cancel(true);
+        release.countDown();
+
+        // Then
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        assertTrue(follower.isCancelled());
+    }
+
+    @Test
+    void cancelledLeader_ShouldLetAWaitingCallerRunTheCall() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw new CancellationException("request aborted");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> "retried"));
+        awaitCoalesced(1);
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals("retried", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2.0, count("executed"));
+    }
+
+    @Test
+    void forget_ShouldMakeLaterCallersStartANewCall() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "stale";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        singleFlight.forget("key");
+        String fresh = singleFlight.execute("key", () -> "fresh");
+        release.countDown();
+
+        // Then
+        assertEquals("fresh", fresh);
+        assertEquals("stale", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("todo.read-coalescing.calls").tag("operation", "test").tag("result", result).counter().count();
+    }
+
+    private void awaitCoalesced(int callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < callers) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the call in flight");
+            Thread.sleep(1);
+        }
+        // The counter is incremented just before the caller starts waiting
+        Thread.sleep(20);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+}
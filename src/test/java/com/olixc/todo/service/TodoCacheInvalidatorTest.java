@@ -0,0 +1,87 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.config.CacheConfig;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoCacheInvalidatorTest {
+
+    private TodoCacheInvalidator invalidator;
+    private Cache cache;
+    private Todo todo;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.TODO_CACHE);
+        invalidator = new TodoCacheInvalidator();
+        ReflectionTestUtils.setField(invalidator, "cacheManager", cacheManager);
+        cache = cacheManager.getCache(CacheConfig.TODO_CACHE);
+
+        todo = new Todo("Cached Todo");
+        todo.setId(1L);
+        cache.put(1L, todo);
+        cache.put(2L, new Todo("Other Todo"));
+    }
+
+    @Test
+    void onTodoChanged_WhenUpdated_ShouldEvictOnlyThatId() {
+        // When
+        invalidator.onTodoChanged(TodoChangedEvent.updated(todo, false));
+
+        // Then
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+    }
+
+    @Test
+    void onTodoChanged_WhenDeleted_ShouldEvict() {
+        // When
+        invalidator.onTodoChanged(TodoChangedEvent.deleted(2L, false));
+
+        // Then
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void isRecentlyChanged_WithReadReplicas_ShouldHoldChangedIdsForMaxLag() {
+        // Given
+        ReflectionTestUtils.setField(invalidator, "readReplicas", true);
+        ReflectionTestUtils.setField(invalidator, "maxLag", Duration.ofMinutes(1));
+        invalidator.init();
+
+        // When
+        invalidator.onTodoChanged(TodoChangedEvent.updated(todo, false));
+
+        // Then
+        assertTrue(invalidator.isRecentlyChanged(1L));
+        assertFalse(invalidator.isRecentlyChanged(2L));
+    }
+
+    @Test
+    void isRecentlyChanged_WithoutReadReplicas_ShouldBeFalse() {
+        // When
+        invalidator.onTodoChanged(TodoChangedEvent.updated(todo, false));
+
+        // Then
+        assertFalse(invalidator.isRecentlyChanged(1L));
+    }
+
+    @Test
+    void onTodoChanged_WhenCreated_ShouldLeaveCacheAlone() {
+        // When
+        invalidator.onTodoChanged(TodoChangedEvent.created(todo));
+
+        // Then
+        assertNotNull(cache.get(1L));
+    }
+}
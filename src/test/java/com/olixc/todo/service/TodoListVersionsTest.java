@@ -0,0 +1,132 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.dto.TodoListVersion;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.routing.ReplicaRoutingDataSource;
+import com.olixc.todo.sharding.TodoShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoListVersionsTest {
+
+    private TodoListVersions todoListVersions;
+    private TodoRepository todoRepository;
+    private Todo todo;
+
+    @BeforeEach
+    void setUp() {
+        todoListVersions = new TodoListVersions(new SimpleMeterRegistry());
+        todoRepository = mock(TodoRepository.class);
+        ReflectionTestUtils.setField(todoListVersions, "todoRepository", todoRepository);
+        ReflectionTestUtils.setField(todoListVersions, "todoShards", new TodoShards());
+        ReflectionTestUtils.setField(todoListVersions, "maxAge", Duration.ofMinutes(1));
+        todo = new Todo("Todo");
+        todo.setId(1L);
+    }
+
+    @Test
+    void all_ShouldBeServedFromMemoryUntilATodoChanges() {
+        // Given
+        TodoListVersion before = new TodoListVersion(1, 1L, LocalDateTime.now());
+        TodoListVersion after = new TodoListVersion(2, 2L, LocalDateTime.now());
+        when(todoRepository.findListVersion()).thenReturn(before, after);
+
+        // When & Then
+        assertEquals(before, todoListVersions.all());
+        assertEquals(before, todoListVersions.all());
+        verify(todoRepository, times(1)).findListVersion();
+
+        todoListVersions.onTodoChanged(TodoChangedEvent.created(todo));
+        assertEquals(after, todoListVersions.all());
+        assertEquals(after, todoListVersions.all());
+        verify(todoRepository, times(2)).findListVersion();
+    }
+
+    @Test
+    void byStatus_ShouldReloadOnceOlderThanMaxAge() {
+        // Given
+        ReflectionTestUtils.setField(todoListVersions, "maxAge", Duration.ZERO);
+        when(todoRepository.findListVersionByCompleted(true)).thenReturn(new TodoListVersion(0, null, null));
+
+        // When
+        todoListVersions.byStatus(true);
+        todoListVersions.byStatus(true);
+
+        // Then
+        verify(todoRepository, times(2)).findListVersionByCompleted(true);
+        verify(todoRepository, never()).findListVersionByCompleted(false);
+    }
+
+    @Test
+    void all_WhenATodoChangesDuringTheReload_ShouldNotKeepTheReloadedVersion() {
+        // Given: the change lands after the query read the table
+        TodoListVersion stale = new TodoListVersion(1, 1L, LocalDateTime.now());
+        TodoListVersion fresh = new TodoListVersion(2, 2L, LocalDateTime.now());
+        when(todoRepository.findListVersion())
+                .thenAnswer(invocation -> {
+                    todoListVersions.onTodoChanged(TodoChangedEvent.created(todo));
+                    return stale;
+                })
+                .thenReturn(fresh);
+
+        // When & Then
+        assertEquals(stale, todoListVersions.all());
+        assertEquals(fresh, todoListVersions.all());
+        assertEquals(fresh, todoListVersions.all());
+        verify(todoRepository, times(2)).findListVersion();
+    }
+
+    @Test
+    void all_WhenPinnedToPrimary_ShouldNeitherServeNorKeepTheVersionInMemory() {
+        // Given: a version loaded by an unpinned request, possibly from a lagging replica
+        TodoListVersion replica = new TodoListVersion(1, 1L, LocalDateTime.now());
+        TodoListVersion primary = new TodoListVersion(2, 2L, LocalDateTime.now());
+        when(todoRepository.findListVersion()).thenReturn(replica, primary, primary);
+        assertEquals(replica, todoListVersions.all());
+
+        // When
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            // Then
+            assertEquals(primary, todoListVersions.all());
+            assertEquals(primary, todoListVersions.all());
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+        assertEquals(replica, todoListVersions.all());
+        verify(todoRepository, times(3)).findListVersion();
+    }
+
+    @Test
+    void all_WithReadReplicas_ShouldNotKeepVersionsReloadedWithinMaxLagOfAChange() {
+        // Given
+        ReflectionTestUtils.setField(todoListVersions, "readReplicas", true);
+        ReflectionTestUtils.setField(todoListVersions, "maxLag", Duration.ofMinutes(1));
+        TodoListVersion version = new TodoListVersion(1, 1L, LocalDateTime.now());
+        when(todoRepository.findListVersion()).thenReturn(version);
+        todoListVersions.onTodoChanged(TodoChangedEvent.created(todo));
+
+        // When
+        todoListVersions.all();
+        todoListVersions.all();
+
+        // Then: a replica may not have applied the change yet, so each request reads again
+        verify(todoRepository, times(2)).findListVersion();
+
+        // Once the lag has passed, the version is kept again
+        ReflectionTestUtils.setField(todoListVersions, "maxLag", Duration.ZERO);
+        todoListVersions.all();
+        todoListVersions.all();
+        verify(todoRepository, times(3)).findListVersion();
+    }
+}
@@ -0,0 +1,103 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.routing.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoReadCoalescerTest {
+
+    private TodoReadCoalescer todoReadCoalescer;
+    private ExecutorService executor;
+    private CountDownLatch started;
+    private CountDownLatch release;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        todoReadCoalescer = new TodoReadCoalescer(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(todoReadCoalescer, "enabled", true);
+        executor = Executors.newCachedThreadPool();
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void todoChanged_ShouldStopLaterReadsJoiningTheCallInFlight() throws Exception {
+        // Given: a read of todo 1 that started before the change
+        Future<Optional<Todo>> before = executor.submit(() -> todoReadCoalescer.todoById(1L, this::blockingLoad));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        Todo changed = new Todo("Changed", null);
+        changed.setId(1L);
+        todoReadCoalescer.onTodoChanged(TodoChangedEvent.updated(changed, false));
+        Optional<Todo> after = todoReadCoalescer.todoById(1L, () -> Optional.of(changed));
+        release.countDown();
+
+        // Then
+        assertEquals("Changed", after.orElseThrow().getTitle());
+        assertEquals("Old", before.get(5, TimeUnit.SECONDS).orElseThrow().getTitle());
+    }
+
+    @Test
+    void readPinnedToPrimary_ShouldNotJoinOtherReads() throws Exception {
+        // Given
+        Future<Optional<Todo>> unpinned = executor.submit(() -> todoReadCoalescer.todoById(1L, this::blockingLoad));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        Optional<Todo> pinned;
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            pinned = todoReadCoalescer.todoById(1L, () -> Optional.empty());
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+        release.countDown();
+
+        // Then
+        assertTrue(pinned.isEmpty());
+        assertTrue(unpinned.get(5, TimeUnit.SECONDS).isPresent());
+    }
+
+    @Test
+    void disabled_ShouldLoadEveryTime() {
+        ReflectionTestUtils.setField(todoReadCoalescer, "enabled", false);
+
+        todoReadCoalescer.todoById(1L, () -> Optional.of(new Todo("Todo " + loads.incrementAndGet(), null)));
+        todoReadCoalescer.todoById(1L, () -> Optional.of(new Todo("Todo " + loads.incrementAndGet(), null)));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<Todo> blockingLoad() {
+        started.countDown();
+        try {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Optional.of(new Todo("Old", null));
+    }
+}
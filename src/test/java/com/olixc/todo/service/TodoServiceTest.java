@@ -1,22 +1,53 @@
 package com.olixc.todo.service;
 
+import com.olixc.todo.config.CacheConfig;
+import com.olixc.todo.dto.BulkItemResult;
+import com.olixc.todo.dto.BulkRequest;
+import com.olixc.todo.dto.BulkResponse;
+import com.olixc.todo.dto.CursorPage;
+import com.olixc.todo.dto.TodoBatch;
+import com.olixc.todo.dto.TodoPatch;
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.dto.TodoUpdate;
+import com.olixc.todo.dto.TodoStatus;
+import com.olixc.todo.dto.TodoView;
 import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
 import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.search.TitleSearchIndex;
+import com.olixc.todo.sharding.TodoShards;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +56,43 @@ class TodoServiceTest {
     @Mock
     private TodoRepository todoRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TitleSearchIndex titleSearchIndex;
+
+    @Mock
+    private TodoStatsCounter todoStatsCounter;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private TodoCacheInvalidator todoCacheInvalidator;
+
+    @Mock
+    private TodoWriteCoalescer todoWriteCoalescer;
+
+    @Mock
+    private TodoReadCoalescer todoReadCoalescer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Not sharded: every query runs directly
+    @Spy
+    private TodoShards todoShards = new TodoShards();
+
+    @Spy
+    private TodoValidator todoValidator = new TodoValidator(Validation.buildDefaultValidatorFactory().getValidator());
+
     @InjectMocks
     private TodoService todoService;
 
@@ -33,6 +101,11 @@ class TodoServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(cacheManager.getCache(CacheConfig.TODO_CACHE)).thenReturn(cache);
+        // Coalescing is covered by TodoReadCoalescerTest; here every read runs its own query
+        lenient().when(todoReadCoalescer.todoById(anyLong(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(todoReadCoalescer.search(anyString(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
         testTodo = new Todo();
         testTodo.setId(1L);
         testTodo.setTitle("Test Todo");
@@ -97,6 +170,55 @@ class TodoServiceTest {
         verify(todoRepository, times(1)).findById(999L);
     }
 
+    @Test
+    void getTodosByIds_ShouldUseCacheFetchMissesAndKeepRequestOrder() {
+        // Given
+        Todo completedTodo = testTodos.get(1);
+        when(cache.get(2L, Todo.class)).thenReturn(completedTodo);
+        when(todoRepository.findAllById(List.of(1L, 999L))).thenReturn(List.of(testTodo));
+
+        // When
+        TodoBatch result = todoService.getTodosByIds(List.of(2L, 1L, 999L, 2L));
+
+        // Then
+        assertEquals(List.of(completedTodo, testTodo), result.todos());
+        assertEquals(List.of(999L), result.missing());
+        verify(todoWriteCoalescer).flush(List.of(2L, 1L, 999L));
+        verify(cache).put(1L, testTodo);
+        verify(todoRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void getTodosByIds_ShouldQueryMissesInChunks() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= TodoService.IN_QUERY_CHUNK_SIZE + 1; id++) {
+            ids.add(id);
+        }
+        when(todoRepository.findAllById(any())).thenReturn(List.of());
+
+        // When
+        TodoBatch result = todoService.getTodosByIds(ids);
+
+        // Then
+        verify(todoRepository).findAllById(ids.subList(0, TodoService.IN_QUERY_CHUNK_SIZE));
+        verify(todoRepository).findAllById(List.of((long) TodoService.IN_QUERY_CHUNK_SIZE + 1));
+        assertEquals(ids, result.missing());
+    }
+
+    @Test
+    void getTodosByIds_WithTooManyIds_ShouldThrow() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= TodoService.MAX_BATCH_IDS; id++) {
+            ids.add(id);
+        }
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> todoService.getTodosByIds(ids));
+        verifyNoInteractions(todoRepository);
+    }
+
     @Test
     void createTodo_ShouldSaveAndReturnTodo() {
         // Given
@@ -129,30 +251,39 @@ class TodoServiceTest {
     @Test
     void updateTodo_WhenTodoExists_ShouldUpdateAndReturnTodo() {
         // Given
-        Todo existingTodo = new Todo();
-        existingTodo.setId(1L);
-        existingTodo.setTitle("Original Title");
-        existingTodo.setDescription("Original Description");
-        existingTodo.setCompleted(false);
-
         Todo updateData = new Todo();
         updateData.setTitle("Updated Title");
         updateData.setDescription("Updated Description");
         updateData.setCompleted(true);
 
-        when(todoRepository.findById(1L)).thenReturn(Optional.of(existingTodo));
-        when(todoRepository.save(any(Todo.class))).thenReturn(existingTodo);
+        Todo stored = new Todo("Updated Title", "Updated Description");
+        stored.setId(1L);
+        stored.setCompleted(true);
+        stored.setVersion(3L);
+        when(todoRepository.updateTodo(eq(1L), eq("Updated Title"), eq("Updated Description"), eq(true), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new TodoUpdate(stored, false)));
 
         // When
         Todo result = todoService.updateTodo(1L, updateData);
 
         // Then
-        assertNotNull(result);
-        assertEquals("Updated Title", result.getTitle());
-        assertEquals("Updated Description", result.getDescription());
-        assertEquals(true, result.isCompleted());
-        verify(todoRepository, times(1)).findById(1L);
-        verify(todoRepository, times(1)).save(existingTodo);
+        assertSame(stored, result);
+        assertEquals(3L, result.getVersion());
+        verify(todoRepository, never()).findById(anyLong());
+        verify(todoRepository, never()).save(any(Todo.class));
+    }
+
+    @Test
+    void writes_WhenValuesExceedTheColumns_ShouldBeRejectedBeforeWriting() {
+        // Given
+        Todo blank = new Todo(" ");
+        Todo longDescription = new Todo("Title", "x".repeat(256));
+
+        // When & Then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> todoService.createTodo(blank));
+        assertEquals("title must not be blank", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> todoService.updateTodo(1L, longDescription));
+        verifyNoInteractions(todoRepository, todoWriteCoalescer, eventPublisher);
     }
 
     @Test
@@ -161,43 +292,108 @@ class TodoServiceTest {
         Todo updateData = new Todo();
         updateData.setTitle("Updated Title");
 
-        when(todoRepository.findById(999L)).thenReturn(Optional.empty());
+        when(todoRepository.updateTodo(eq(999L), eq("Updated Title"), isNull(), eq(false), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
 
         // When
         Todo result = todoService.updateTodo(999L, updateData);
 
         // Then
         assertNull(result);
-        verify(todoRepository, times(1)).findById(999L);
+        verify(todoRepository, never()).findById(anyLong());
         verify(todoRepository, never()).save(any(Todo.class));
     }
 
+    @Test
+    void updateTodo_WhenCoalescerAcceptsUpdate_ShouldNotWriteDirectly() {
+        // Given
+        Todo updateData = new Todo("Buffered");
+        Todo buffered = new Todo("Buffered");
+        buffered.setId(1L);
+        when(todoWriteCoalescer.isEnabled()).thenReturn(true);
+        when(todoWriteCoalescer.offer(1L, updateData)).thenReturn(Optional.of(buffered));
+
+        // When
+        Todo result = todoService.updateTodo(1L, updateData);
+
+        // Then
+        assertSame(buffered, result);
+        verifyNoInteractions(todoRepository, eventPublisher);
+    }
+
+    @Test
+    void updateTodo_ShouldFlushBufferedUpdateBeforeItsTransactionBegins() {
+        // Given
+        Todo updateData = new Todo("Direct");
+        when(todoRepository.updateTodo(eq(1L), eq("Direct"), isNull(), eq(false), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new TodoUpdate(testTodo, false)));
+
+        // When
+        todoService.updateTodo(1L, updateData);
+
+        // Then: the flush takes a connection of its own, so none may be held while it runs
+        InOrder inOrder = inOrder(todoWriteCoalescer, transactionManager, todoRepository);
+        inOrder.verify(todoWriteCoalescer).flush(1L);
+        inOrder.verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+        inOrder.verify(todoRepository).updateTodo(eq(1L), eq("Direct"), isNull(), eq(false), any(LocalDateTime.class));
+    }
+
+    @Test
+    void patchTodo_ShouldChangeOnlyPatchedFields() {
+        // Given
+        testTodo.setVersion(4L);
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(testTodo));
+
+        // When
+        Todo result = todoService.patchTodo(1L, new TodoPatch(null, false, null, true), 4L);
+
+        // Then
+        assertTrue(result.isCompleted());
+        assertEquals("Test Todo", result.getTitle());
+        assertEquals("Test Description", result.getDescription());
+        verify(entityManager, times(1)).flush();
+        verify(eventPublisher, times(1)).publishEvent(TodoChangedEvent.updated(testTodo, false));
+    }
+
+    @Test
+    void patchTodo_WhenVersionDiffers_ShouldFailWithoutChanges() {
+        // Given
+        testTodo.setVersion(4L);
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(testTodo));
+
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> todoService.patchTodo(1L, new TodoPatch("Other", false, null, null), 3L));
+        assertEquals("Test Todo", testTodo.getTitle());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void deleteTodo_WhenTodoExists_ShouldDeleteAndReturnTrue() {
         // Given
-        when(todoRepository.existsById(1L)).thenReturn(true);
+        when(todoRepository.deleteTodoById(1L)).thenReturn(Optional.of(false));
 
         // When
         boolean result = todoService.deleteTodo(1L);
 
         // Then
         assertTrue(result);
-        verify(todoRepository, times(1)).existsById(1L);
-        verify(todoRepository, times(1)).deleteById(1L);
+        verify(todoRepository, times(1)).deleteTodoById(1L);
+        verify(todoRepository, never()).existsById(anyLong());
     }
 
     @Test
     void deleteTodo_WhenTodoDoesNotExist_ShouldReturnFalse() {
         // Given
-        when(todoRepository.existsById(999L)).thenReturn(false);
+        when(todoRepository.deleteTodoById(999L)).thenReturn(Optional.empty());
 
         // When
         boolean result = todoService.deleteTodo(999L);
 
         // Then
         assertFalse(result);
-        verify(todoRepository, times(1)).existsById(999L);
-        verify(todoRepository, never()).deleteById(anyLong());
+        verify(todoRepository, times(1)).deleteTodoById(999L);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -279,4 +475,226 @@ class TodoServiceTest {
         assertFalse(result.get(0).isCompleted());
         verify(todoRepository, times(1)).findByCompletedFalse();
     }
+
+    @Test
+    void getTodosPage_WhenMoreRowsExist_ShouldReturnNextCursor() {
+        // Given
+        when(todoRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(testTodos);
+
+        // When
+        CursorPage<Todo> page = todoService.getTodosPage(null, 1);
+
+        // Then
+        assertEquals(1, page.items().size());
+        assertEquals("Test Todo", page.items().get(0).getTitle());
+        assertNotNull(page.next());
+        assertEquals(1L, CursorPage.decodeCursor(page.next()));
+    }
+
+    @Test
+    void getTodosPage_OnLastPage_ShouldReturnNoCursor() {
+        // Given
+        String cursor = CursorPage.encodeCursor(1L);
+        when(todoRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(11))).thenReturn(List.of(testTodos.get(1)));
+
+        // When
+        CursorPage<Todo> page = todoService.getTodosPage(cursor, 10);
+
+        // Then
+        assertEquals(1, page.items().size());
+        assertNull(page.next());
+    }
+
+    @Test
+    void getPendingTodosPage_ShouldQueryPendingKeysetRange() {
+        // Given
+        when(todoRepository.findByCompletedAndIdGreaterThanOrderByIdAsc(false, 0L, Limit.of(TodoService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of(testTodo));
+
+        // When
+        CursorPage<Todo> page = todoService.getPendingTodosPage(null, 10_000);
+
+        // Then
+        assertEquals(1, page.items().size());
+        assertNull(page.next());
+    }
+
+    @Test
+    void getTodosPage_WithInvalidCursor_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> todoService.getTodosPage("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> todoService.getTodosPage(null, 0));
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void exportTodos_ShouldWriteAndDetachEveryTodo() {
+        // Given
+        when(todoRepository.streamAllByOrderByIdAsc()).thenReturn(testTodos.stream());
+        List<Todo> written = new ArrayList<>();
+
+        // When
+        long exported = todoService.exportTodos(written::add);
+
+        // Then
+        assertEquals(2, exported);
+        assertEquals(testTodos, written);
+        verify(entityManager, times(1)).detach(testTodos.get(0));
+        verify(entityManager, times(1)).detach(testTodos.get(1));
+    }
+
+    @Test
+    void bulkApply_ShouldReportResultForEveryItem() {
+        // Given
+        doAnswer(invocation -> {
+            invocation.<Todo>getArgument(0).setId(10L);
+            return null;
+        }).when(entityManager).persist(any(Todo.class));
+        when(todoRepository.findAllById(Set.of(1L, 999L))).thenReturn(List.of(testTodo));
+        when(todoRepository.findStatusesByIds(Set.of(2L, 998L))).thenReturn(List.of(new TodoStatus(2L, true)));
+
+        Todo update = new Todo("Renamed");
+        update.setId(1L);
+        update.setCompleted(true);
+        Todo missing = new Todo("Missing");
+        missing.setId(999L);
+        BulkRequest request = new BulkRequest(List.of(new Todo("Created"), new Todo()), List.of(update, missing), List.of(2L, 998L));
+
+        // When
+        BulkResponse response = todoService.bulkApply(request);
+
+        // Then
+        assertEquals(BulkItemResult.Status.CREATED, response.created().get(0).status());
+        assertEquals(10L, response.created().get(0).id());
+        assertEquals(BulkItemResult.Status.INVALID, response.created().get(1).status());
+        assertEquals(BulkItemResult.Status.UPDATED, response.updated().get(0).status());
+        assertEquals(BulkItemResult.Status.NOT_FOUND, response.updated().get(1).status());
+        assertEquals(BulkItemResult.Status.DELETED, response.deleted().get(0).status());
+        assertEquals(BulkItemResult.Status.NOT_FOUND, response.deleted().get(1).status());
+        assertEquals("Renamed", testTodo.getTitle());
+        assertTrue(testTodo.isCompleted());
+        verify(entityManager, times(1)).persist(any(Todo.class));
+        verify(todoRepository, times(1)).deleteAllByIdInBatch(Set.of(2L));
+        verify(eventPublisher, times(1)).publishEvent(TodoChangedEvent.updated(testTodo, false));
+        verify(eventPublisher, times(1)).publishEvent(TodoChangedEvent.deleted(2L, true));
+    }
+
+    @Test
+    void bulkApply_WhenTooManyItems_ShouldThrow() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= TodoService.MAX_BULK_ITEMS; id++) {
+            ids.add(id);
+        }
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> todoService.bulkApply(new BulkRequest(null, null, ids)));
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void searchTodosByTitle_WhenIndexAnswers_ShouldLoadHitsByIdInOrder() {
+        // Given
+        Todo completedTodo = testTodos.get(1);
+        when(titleSearchIndex.search("todo")).thenReturn(Optional.of(List.of(1L, 2L)));
+        when(todoRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(completedTodo, testTodo));
+
+        // When
+        List<Todo> result = todoService.searchTodosByTitle("todo");
+
+        // Then
+        assertEquals(List.of(testTodo, completedTodo), result);
+        verify(todoRepository, never()).findByTitleContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void getAllTodoViews_ShouldReturnProjectedViews() {
+        // Given
+        List<TodoView> views = testTodos.stream().map(TodoView::of).toList();
+        when(todoRepository.findViewsBy()).thenReturn(views);
+
+        // When
+        List<TodoView> result = todoService.getAllTodoViews();
+
+        // Then
+        assertEquals(views, result);
+        verify(todoRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllTodoViews_ShouldFlushBufferedUpdatesBeforeReading() {
+        // Given
+        when(todoRepository.findViewsBy()).thenReturn(List.of());
+
+        // When
+        todoService.getAllTodoViews();
+
+        // Then: a client reads its own buffered writes in lists too
+        InOrder inOrder = inOrder(todoWriteCoalescer, transactionManager, todoRepository);
+        inOrder.verify(todoWriteCoalescer).flush();
+        inOrder.verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        inOrder.verify(todoRepository).findViewsBy();
+    }
+
+    @Test
+    void searchTodoViewsByTitle_WhenIndexAnswers_ShouldLoadViewsByIdInOrder() {
+        // Given
+        TodoView pending = TodoView.of(testTodo);
+        TodoView completed = TodoView.of(testTodos.get(1));
+        when(titleSearchIndex.search("todo")).thenReturn(Optional.of(List.of(1L, 2L)));
+        when(todoRepository.findViewsByIdIn(List.of(1L, 2L))).thenReturn(List.of(completed, pending));
+
+        // When
+        List<TodoView> result = todoService.searchTodoViewsByTitle("todo");
+
+        // Then
+        assertEquals(List.of(pending, completed), result);
+        verify(todoRepository, never()).findViewsByTitleContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void writes_ShouldPublishChangeEvents() {
+        // Given
+        when(todoRepository.save(testTodo)).thenReturn(testTodo);
+        when(todoRepository.deleteTodoById(1L)).thenReturn(Optional.of(true));
+
+        // When
+        todoService.createTodo(testTodo);
+        todoService.deleteTodo(1L);
+
+        // Then
+        verify(eventPublisher, times(1)).publishEvent(TodoChangedEvent.created(testTodo));
+        verify(eventPublisher, times(1)).publishEvent(TodoChangedEvent.deleted(1L, true));
+    }
+
+    @Test
+    void updateTodo_ShouldPublishPreviousCompletionStatusReportedByTheUpdate() {
+        // Given
+        Todo updateData = new Todo("Test Todo");
+        updateData.setCompleted(true);
+        Todo stored = new Todo("Test Todo");
+        stored.setId(1L);
+        stored.setCompleted(true);
+        when(todoRepository.updateTodo(eq(1L), eq("Test Todo"), isNull(), eq(true), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new TodoUpdate(stored, false)));
+
+        // When
+        Todo result = todoService.updateTodo(1L, updateData);
+
+        // Then
+        verify(eventPublisher, times(1)).publishEvent(TodoChangedEvent.updated(result, false));
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    void getStats_ShouldComeFromCountersWithoutDatabase() {
+        // Given
+        when(todoStatsCounter.current()).thenReturn(new TodoStats(5, 2, 3));
+
+        // When
+        TodoStats stats = todoService.getStats();
+
+        // Then
+        assertEquals(new TodoStats(5, 2, 3), stats);
+        verifyNoInteractions(todoRepository);
+    }
 }
@@ -0,0 +1,101 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.dto.TodoStats;
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.sharding.TodoShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TodoStatsCounterTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    // Not sharded: every query runs directly
+    @Spy
+    private TodoShards todoShards = new TodoShards();
+
+    @InjectMocks
+    private TodoStatsCounter todoStatsCounter;
+
+    private Todo pendingTodo;
+    private Todo completedTodo;
+
+    @BeforeEach
+    void setUp() {
+        pendingTodo = new Todo("Pending");
+        pendingTodo.setId(1L);
+        completedTodo = new Todo("Completed");
+        completedTodo.setId(2L);
+        completedTodo.setCompleted(true);
+    }
+
+    @Test
+    void reconcile_ShouldSeedCountersFromAggregate() {
+        // Given
+        when(todoRepository.countByStatus()).thenReturn(new TodoStats(10, 4, 6));
+
+        // When
+        todoStatsCounter.reconcile();
+
+        // Then
+        assertEquals(new TodoStats(10, 4, 6), todoStatsCounter.current());
+    }
+
+    @Test
+    void reconcile_ShouldKeepChangesCountedWhileTheQueryRuns() {
+        // Given: a todo is created after the aggregate query read the table
+        when(todoRepository.countByStatus()).thenAnswer(invocation -> {
+            todoStatsCounter.onTodoChanged(TodoChangedEvent.created(completedTodo));
+            return new TodoStats(10, 4, 6);
+        });
+
+        // When
+        todoStatsCounter.reconcile();
+
+        // Then
+        assertEquals(new TodoStats(11, 5, 6), todoStatsCounter.current());
+    }
+
+    @Test
+    void onTodoChanged_ShouldTrackCreatesUpdatesAndDeletes() {
+        // When
+        todoStatsCounter.onTodoChanged(TodoChangedEvent.created(pendingTodo));
+        todoStatsCounter.onTodoChanged(TodoChangedEvent.created(completedTodo));
+        pendingTodo.setCompleted(true);
+        todoStatsCounter.onTodoChanged(TodoChangedEvent.updated(pendingTodo, false));
+        todoStatsCounter.onTodoChanged(TodoChangedEvent.deleted(2L, true));
+
+        // Then
+        assertEquals(new TodoStats(1, 1, 0), todoStatsCounter.current());
+        todoStatsCounter.reconcileIfDirty();
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void onTodoChanged_WithUnknownPreviousStatus_ShouldReconcileEarly() {
+        // Given
+        when(todoRepository.countByStatus()).thenReturn(new TodoStats(2, 1, 1), new TodoStats(1, 0, 1));
+        todoStatsCounter.reconcile();
+
+        // When
+        todoStatsCounter.onTodoChanged(TodoChangedEvent.deleted(2L, null));
+        todoStatsCounter.reconcileIfDirty();
+        todoStatsCounter.reconcileIfDirty();
+
+        // Then
+        assertEquals(new TodoStats(1, 0, 1), todoStatsCounter.current());
+        verify(todoRepository, times(2)).countByStatus();
+    }
+}
@@ -0,0 +1,235 @@
+package com.olixc.todo.service;
+
+import com.olixc.todo.entity.Todo;
+import com.olixc.todo.event.TodoChangedEvent;
+import com.olixc.todo.repository.TodoRepository;
+import com.olixc.todo.sharding.TodoShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TodoWriteCoalescerTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Not sharded: every query runs directly
+    @Spy
+    private TodoShards todoShards = new TodoShards();
+
+    @Spy
+    private TodoValidator todoValidator = new TodoValidator(Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private TodoWriteCoalescer todoWriteCoalescer;
+
+    private Todo stored;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(todoWriteCoalescer, "enabled", true);
+        ReflectionTestUtils.setField(todoWriteCoalescer, "maxPending", 2);
+        ReflectionTestUtils.setField(todoWriteCoalescer, "maxAttempts", 2);
+
+        stored = new Todo("Stored", "Description");
+        stored.setId(1L);
+        stored.setCreatedAt(LocalDateTime.now());
+        stored.setVersion(7L);
+    }
+
+    @Test
+    void offer_ShouldMergeUpdatesAndWriteTheLastOnceOnFlush() {
+        // Given
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(todoRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+
+        // When
+        todoWriteCoalescer.offer(1L, update("First", true));
+        todoWriteCoalescer.offer(1L, update("Second", false));
+        Optional<Todo> last = todoWriteCoalescer.offer(1L, update("Third", true));
+        todoWriteCoalescer.flush();
+
+        // Then
+        assertEquals("Third", last.orElseThrow().getTitle());
+        assertEquals(8L, last.get().getVersion());
+        assertEquals(stored.getCreatedAt(), last.get().getCreatedAt());
+        assertEquals("Third", stored.getTitle());
+        assertTrue(stored.isCompleted());
+        assertFalse(todoWriteCoalescer.isPending(1L));
+        verify(todoRepository, times(1)).findById(1L);
+        verify(eventPublisher, times(1)).publishEvent(TodoChangedEvent.updated(stored, false));
+    }
+
+    @Test
+    void flushOfOneId_ShouldWriteOnlyThatId() {
+        // Given
+        Todo other = new Todo("Other");
+        other.setId(2L);
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(todoRepository.findById(2L)).thenReturn(Optional.of(other));
+        when(todoRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+        todoWriteCoalescer.offer(1L, update("Read me", false));
+        todoWriteCoalescer.offer(2L, update("Later", false));
+
+        // When
+        todoWriteCoalescer.flush(1L);
+
+        // Then
+        assertEquals("Read me", stored.getTitle());
+        assertFalse(todoWriteCoalescer.isPending(1L));
+        assertTrue(todoWriteCoalescer.isPending(2L));
+    }
+
+    @Test
+    void offer_WhenBufferIsFullOrDisabled_ShouldNotAccept() {
+        // Given
+        for (long id = 1; id <= 3; id++) {
+            Todo todo = new Todo("Todo " + id);
+            todo.setId(id);
+            lenient().when(todoRepository.findById(id)).thenReturn(Optional.of(todo));
+        }
+
+        // When & Then
+        assertTrue(todoWriteCoalescer.offer(1L, update("One", false)).isPresent());
+        assertTrue(todoWriteCoalescer.offer(2L, update("Two", false)).isPresent());
+        assertTrue(todoWriteCoalescer.offer(3L, update("Three", false)).isEmpty());
+        assertTrue(todoWriteCoalescer.offer(1L, update("One again", false)).isPresent());
+
+        ReflectionTestUtils.setField(todoWriteCoalescer, "enabled", false);
+        assertTrue(todoWriteCoalescer.offer(1L, update("One", true)).isEmpty());
+    }
+
+    @Test
+    void offer_WhenTodoDoesNotExist_ShouldNotAccept() {
+        // Given
+        when(todoRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertTrue(todoWriteCoalescer.offer(999L, update("Missing", false)).isEmpty());
+        assertFalse(todoWriteCoalescer.isPending(999L));
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldKeepUpdatesForTheNextWindow() {
+        // Given
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(stored));
+        todoWriteCoalescer.offer(1L, update("Retry me", false));
+        when(todoRepository.findAllById(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When
+        todoWriteCoalescer.flush();
+
+        // Then
+        assertTrue(todoWriteCoalescer.isPending(1L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void offer_WhenUpdateIsInvalid_ShouldNotAccept() {
+        // When & Then
+        assertTrue(todoWriteCoalescer.offer(1L, update(" ", false)).isEmpty());
+        assertTrue(todoWriteCoalescer.offer(1L, new Todo("Title", "x".repeat(256))).isEmpty());
+        assertFalse(todoWriteCoalescer.isPending(1L));
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void flush_WhenOneUpdateIsRejected_ShouldWriteTheOthersAndDropItAfterMaxAttempts() {
+        // Given: the database rejects any write of todo 2
+        Todo rejected = new Todo("Rejected");
+        rejected.setId(2L);
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(todoRepository.findById(2L)).thenReturn(Optional.of(rejected));
+        when(todoRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.contains(2L)) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return List.of(stored);
+        });
+        todoWriteCoalescer.offer(1L, update("Written", true));
+        todoWriteCoalescer.offer(2L, update("Never written", false));
+
+        // When
+        todoWriteCoalescer.flush();
+
+        // Then
+        assertEquals("Written", stored.getTitle());
+        assertFalse(todoWriteCoalescer.isPending(1L));
+        assertTrue(todoWriteCoalescer.isPending(2L));
+
+        todoWriteCoalescer.flush();
+        assertFalse(todoWriteCoalescer.isPending(2L));
+        assertEquals(1.0, meterRegistry.counter("todo.write-coalescing.dropped").count());
+        verify(eventPublisher, times(1)).publishEvent(any(TodoChangedEvent.class));
+    }
+
+    @Test
+    void flush_ShouldWriteInATransactionOfItsOwn() {
+        // Given
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(todoRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+        todoWriteCoalescer.offer(1L, update("Separate", false));
+
+        // When
+        todoWriteCoalescer.flush();
+
+        // Then
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    void close_ShouldFlushAndStopAcceptingUpdates() {
+        // Given
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(todoRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+        todoWriteCoalescer.offer(1L, update("Before shutdown", false));
+
+        // When
+        todoWriteCoalescer.close();
+
+        // Then
+        assertEquals("Before shutdown", stored.getTitle());
+        assertFalse(todoWriteCoalescer.isEnabled());
+        assertTrue(todoWriteCoalescer.offer(1L, update("After shutdown", false)).isEmpty());
+    }
+
+    private static Todo update(String title, boolean completed) {
+        Todo todo = new Todo(title);
+        todo.setCompleted(completed);
+        return todo;
+    }
+}
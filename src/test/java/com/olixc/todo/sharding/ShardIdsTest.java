@@ -0,0 +1,29 @@
+package com.olixc.todo.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardIdsTest {
+
+    @Test
+    void id_ShouldEncodeItsShard() {
+        // When / Then: every shard index routes back to that shard, whatever the sequence value
+        for (int shard = 0; shard < ShardIds.MAX_SHARDS; shard++) {
+            assertEquals(shard, ShardIds.shardOf(ShardIds.id(12_345, shard)));
+            assertEquals(shard, ShardIds.shardOf(ShardIds.id(1, shard)));
+        }
+    }
+
+    @Test
+    void id_ShouldKeepSequenceOrderWithinAShard() {
+        assertTrue(ShardIds.id(1, 3) < ShardIds.id(2, 3));
+        assertTrue(ShardIds.id(1, ShardIds.MAX_SHARDS - 1) < ShardIds.id(2, 0));
+    }
+
+    @Test
+    void id_WhenShardIsOutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> ShardIds.id(1, ShardIds.MAX_SHARDS));
+        assertThrows(IllegalArgumentException.class, () -> ShardIds.id(1, -1));
+    }
+}
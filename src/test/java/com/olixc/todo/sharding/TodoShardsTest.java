@@ -0,0 +1,129 @@
+package com.olixc.todo.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoShardsTest {
+
+    private final List<TodoShards> sharded = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        sharded.forEach(TodoShards::close);
+    }
+
+    @Test
+    void merge_ShouldInterleaveSortedShardsInOrder() {
+        // Given
+        List<List<Long>> shards = List.of(List.of(1L, 4L, 9L), List.of(), List.of(2L, 3L, 10L, 11L), List.of(5L));
+
+        // When
+        List<Long> merged = TodoShards.merge(shards, Comparator.naturalOrder());
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 9L, 10L, 11L), merged);
+    }
+
+    @Test
+    void merge_ShouldKeepShardOrderOfEqualElements() {
+        // Given: compared by first letter only
+        List<List<String>> shards = List.of(List.of("a1", "b1"), List.of("a2", "b2"));
+
+        // When
+        List<String> merged = TodoShards.merge(shards, Comparator.comparing(value -> value.charAt(0)));
+
+        // Then
+        assertEquals(List.of("a1", "a2", "b1", "b2"), merged);
+    }
+
+    @Test
+    void notSharded_ShouldRunQueriesDirectly() {
+        // Given: no shard routing configured
+        TodoShards todoShards = new TodoShards();
+        List<Long> rows = List.of(3L, 1L, 2L);
+
+        // When / Then: results are passed through unchanged, on the calling thread
+        assertFalse(todoShards.isEnabled());
+        assertNull(todoShards.newId());
+        assertSame(rows, todoShards.scatter(() -> rows, Comparator.naturalOrder()));
+        assertSame(rows, todoShards.byShard(List.of(7L), ids -> rows));
+        assertEquals("done", todoShards.route(7L, () -> "done"));
+        Thread caller = Thread.currentThread();
+        assertEquals(List.of(caller), todoShards.onEachShard(Thread::currentThread));
+    }
+
+    @Test
+    void appendingAShard_ShouldKeepRoutingExistingTodosToTheirShard() {
+        // Given: ids issued while there were two shards
+        List<DataSource> databases = List.of(shardDatabase("append-0"), shardDatabase("append-1"), shardDatabase("append-2"));
+        TodoShards two = sharded(databases.subList(0, 2));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(two.newId());
+        }
+
+        // When
+        TodoShards three = sharded(databases);
+
+        // Then: each todo stays on the shard it was stored on, and new todos use all three
+        for (Long id : ids) {
+            int shard = two.route(id, ShardRoutingDataSource::currentShard);
+            assertEquals(ShardIds.shardOf(id), shard);
+            assertEquals(shard, three.route(id, ShardRoutingDataSource::currentShard));
+        }
+        assertEquals(Set.of(0, 1), shardsOf(two, ids));
+        assertEquals(Set.of(0, 1, 2), shardsOf(three, List.of(three.newId(), three.newId(), three.newId())));
+        assertEquals(20, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void byShard_ShouldRunOncePerShardWithThatShardsItems() {
+        // Given
+        TodoShards todoShards = sharded(List.of(shardDatabase("by-shard-0"), shardDatabase("by-shard-1")));
+        long first = ShardIds.id(1, 0);
+        long second = ShardIds.id(1, 1);
+        long unknown = ShardIds.id(1, 5);
+
+        // When
+        List<String> runs = todoShards.byShard(Arrays.asList(second, first, null, second + (1 << ShardIds.SHARD_BITS), unknown),
+                Function.identity(), items -> List.of(ShardRoutingDataSource.currentShard() + ":" + items));
+
+        // Then: items without an id, or naming no configured shard, go to the first shard
+        assertEquals(Set.of("0:[" + first + ", null, " + unknown + "]", "1:[" + second + ", " + (second + (1 << ShardIds.SHARD_BITS)) + "]"),
+                new HashSet<>(runs));
+    }
+
+    private TodoShards sharded(List<DataSource> databases) {
+        TodoShards todoShards = new TodoShards();
+        ReflectionTestUtils.setField(todoShards, "shardRoutingDataSource", new ShardRoutingDataSource(databases));
+        todoShards.init();
+        sharded.add(todoShards);
+        return todoShards;
+    }
+
+    private static Set<Integer> shardsOf(TodoShards todoShards, List<Long> ids) {
+        Set<Integer> shards = new HashSet<>();
+        ids.forEach(id -> shards.add(todoShards.route(id, ShardRoutingDataSource::currentShard)));
+        return shards;
+    }
+
+    private static DataSource shardDatabase(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:todo-shards-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE SEQUENCE IF NOT EXISTS todos_seq START WITH 1 INCREMENT BY 50");
+        return dataSource;
+    }
+}